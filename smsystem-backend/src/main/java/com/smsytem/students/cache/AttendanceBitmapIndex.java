@@ -0,0 +1,493 @@
+package com.smsytem.students.cache;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.smsytem.students.entity.Attendance.AttendanceStatus;
+import com.smsytem.students.event.AttendanceChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process attendance index holding one bitset per status for each student's school year
+ * Every calendar day of the school year maps to one bit, so range counts, percentages and
+ * absence streaks become popcounts over a handful of longs instead of SQL scans.
+ * Class counts are kept as per-day tallies keyed by the class stored on each row, the same
+ * attribution the SQL path uses, so a student who changed class is counted where they were.
+ * Enabled with app.attendance.bitmap-index.enabled=true; loaded at startup and kept current
+ * from AttendanceChangedEvent after each attendance transaction commits. A sample of students
+ * and classes is compared with SQL after loading and on app.attendance.bitmap-index.verify-cron.
+ */
+@Component
+@ConditionalOnProperty(name = "app.attendance.bitmap-index.enabled", havingValue = "true")
+@Slf4j
+public class AttendanceBitmapIndex {
+
+    private static final int WORDS_PER_YEAR = 6; // 384 bits, enough for 366 days
+    private static final AttendanceStatus[] STATUSES = AttendanceStatus.values();
+    private static final int WORDS_PER_BITMAP = WORDS_PER_YEAR * STATUSES.length;
+    private static final int LOAD_FETCH_SIZE = 1000;
+    private static final int DAYS_PER_YEAR = 366;
+    private static final String LOAD_SQL =
+            "SELECT student_id, class_id, attendance_date, status FROM attendance WHERE attendance_date >= ?";
+
+    private static final String VERIFY_STUDENTS_SQL =
+            "SELECT student_id, status, COUNT(*) FROM attendance WHERE attendance_date BETWEEN ? AND ? " +
+            "AND student_id = ANY (?) GROUP BY student_id, status";
+
+    private static final String VERIFY_CLASSES_SQL =
+            "SELECT class_id, status, COUNT(*) FROM attendance WHERE attendance_date BETWEEN ? AND ? " +
+            "AND class_id = ANY (?) GROUP BY class_id, status";
+
+    private final ConcurrentHashMap<Long, StudentBitmap> students = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ClassTally> classes = new ConcurrentHashMap<>();
+    private final Queue<AttendanceChangedEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicLong loadMillis = new AtomicLong(-1);
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int schoolYearStartMonth;
+    private final int loadedYears;
+    private final int verifySampleSize;
+    private volatile Map<String, Object> lastVerification = Collections.emptyMap();
+
+    private volatile boolean ready;
+    private volatile LocalDate loadedFrom;
+
+    public AttendanceBitmapIndex(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.attendance.school-year-start-month:1}") int schoolYearStartMonth,
+                                 @Value("${app.attendance.bitmap-index.years:2}") int loadedYears,
+                                 @Value("${app.attendance.bitmap-index.verify-sample:50}") int verifySampleSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.schoolYearStartMonth = schoolYearStartMonth;
+        this.loadedYears = loadedYears;
+        this.verifySampleSize = verifySampleSize;
+    }
+
+    /**
+     * Load the configured number of school years from the attendance table
+     * Changes committed while the scan runs are queued and replayed afterwards
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        loadedFrom = yearStart(schoolYearOf(LocalDate.now()) - (loadedYears - 1));
+        log.info("Loading attendance bitmap index from {}...", loadedFrom);
+
+        // A cursor with a fetch size keeps the scan from materializing the whole table
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(LOAD_SQL);
+                ps.setFetchSize(LOAD_FETCH_SIZE);
+                ps.setDate(1, Date.valueOf(loadedFrom));
+                return ps;
+            }, (RowCallbackHandler) rs -> set(rs.getLong(1), rs.getObject(2, Long.class), rs.getDate(3).toLocalDate(),
+                    AttendanceStatus.valueOf(rs.getString(4))));
+            return null;
+        });
+
+        ready = true;
+        applyPending();
+
+        loadMillis.set(System.currentTimeMillis() - started);
+        log.info("Attendance bitmap index loaded {} students in {} ms", students.size(), loadMillis.get());
+        verifySample();
+    }
+
+    /**
+     * Keep the index current once an attendance write has committed
+     * Always queued first, so an event racing with the end of load() is still applied
+     */
+    @TransactionalEventListener
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        pendingEvents.add(event);
+        if (ready) {
+            applyPending();
+        }
+    }
+
+    /**
+     * Compare a random sample of students and classes with SQL over the loaded range
+     * Differences are logged and kept for the footprint report; a write still committing
+     * while the check runs can show up as a one-off difference.
+     */
+    @Scheduled(cron = "${app.attendance.bitmap-index.verify-cron:0 30 3 * * *}")
+    public void verifySample() {
+        if (!ready) {
+            return;
+        }
+        LocalDate from = loadedFrom;
+        LocalDate to = LocalDate.now();
+        List<Long> studentIds = sample(students.keySet());
+        List<Long> classIds = sample(classes.keySet());
+
+        Map<Long, Map<AttendanceStatus, Long>> sqlStudents = groupedCounts(VERIFY_STUDENTS_SQL, from, to, studentIds);
+        Map<Long, Map<AttendanceStatus, Long>> sqlClasses = groupedCounts(VERIFY_CLASSES_SQL, from, to, classIds);
+
+        List<Long> studentMismatches = new ArrayList<>();
+        for (Long studentId : studentIds) {
+            if (!countStudent(studentId, from, to).equals(sqlStudents.getOrDefault(studentId, Collections.emptyMap()))) {
+                studentMismatches.add(studentId);
+            }
+        }
+        List<Long> classMismatches = new ArrayList<>();
+        for (Long classId : classIds) {
+            if (!countClass(classId, from, to).equals(sqlClasses.getOrDefault(classId, Collections.emptyMap()))) {
+                classMismatches.add(classId);
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("verifiedAt", LocalDateTime.now());
+        report.put("studentsChecked", studentIds.size());
+        report.put("studentMismatches", studentMismatches);
+        report.put("classesChecked", classIds.size());
+        report.put("classMismatches", classMismatches);
+        lastVerification = report;
+        if (!studentMismatches.isEmpty() || !classMismatches.isEmpty()) {
+            log.warn("Attendance bitmap index differs from SQL for students {} and classes {}",
+                    studentMismatches, classMismatches);
+        }
+    }
+
+    /**
+     * Check whether the index can answer a query for the given range
+     */
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        return ready && !startDate.isBefore(loadedFrom) && !startDate.isAfter(endDate);
+    }
+
+    /**
+     * Count a student's attendance per status in a date range
+     */
+    public Map<AttendanceStatus, Long> countStudent(Long studentId, LocalDate startDate, LocalDate endDate) {
+        Map<AttendanceStatus, Long> counts = new EnumMap<>(AttendanceStatus.class);
+        StudentBitmap bitmap = students.get(studentId);
+        if (bitmap != null) {
+            bitmap.addCounts(counts, startDate, endDate);
+        }
+        return counts;
+    }
+
+    /**
+     * Count attendance per status in a date range for rows recorded against a class
+     */
+    public Map<AttendanceStatus, Long> countClass(Long classId, LocalDate startDate, LocalDate endDate) {
+        Map<AttendanceStatus, Long> counts = new EnumMap<>(AttendanceStatus.class);
+        ClassTally tally = classes.get(classId);
+        if (tally != null) {
+            tally.addCounts(counts, startDate, endDate);
+        }
+        return counts;
+    }
+
+    /**
+     * Count the consecutive ABSENT days ending at the given date
+     * Days without any attendance record (weekends, holidays) do not break the streak.
+     * Empty when the streak reaches the first loaded day, since it may continue before it.
+     */
+    public OptionalLong consecutiveAbsences(Long studentId, LocalDate asOf) {
+        StudentBitmap bitmap = students.get(studentId);
+        long streak = bitmap != null ? bitmap.consecutiveAbsences(asOf) : -1;
+        return streak >= 0 ? OptionalLong.of(streak) : OptionalLong.empty();
+    }
+
+    /**
+     * Report the memory used by the index
+     * Sizes are estimates for a 64-bit JVM with compressed object pointers
+     */
+    public Map<String, Object> footprint() {
+        long studentYears = 0;
+        for (StudentBitmap bitmap : students.values()) {
+            studentYears += bitmap.yearCount();
+        }
+
+        long bitmapBytes = studentYears * (16L + WORDS_PER_BITMAP * 8L); // long[] header + words
+        long yearEntryBytes = studentYears * (40L + 16L); // TreeMap entry + Integer key
+        long studentEntryBytes = students.size() * (32L + 16L + 16L + 48L); // map node + Long key + bitmap + TreeMap
+        long classYears = 0;
+        for (ClassTally tally : classes.values()) {
+            classYears += tally.yearCount();
+        }
+        long tallyBytes = classYears * (16L + DAYS_PER_YEAR * STATUSES.length * 4L + 56L); // int[] + entry + key
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("ready", ready);
+        report.put("loadedFrom", loadedFrom);
+        report.put("loadMillis", loadMillis.get());
+        report.put("studentCount", students.size());
+        report.put("studentYearCount", studentYears);
+        report.put("bytesPerStudentYear", 16L + WORDS_PER_BITMAP * 8L);
+        report.put("bitmapBytes", bitmapBytes);
+        report.put("classCount", classes.size());
+        report.put("classTallyBytes", tallyBytes);
+        report.put("estimatedTotalBytes", bitmapBytes + yearEntryBytes + studentEntryBytes + tallyBytes);
+        report.put("lastVerification", lastVerification);
+        return report;
+    }
+
+    /**
+     * Apply queued events in order; serialized so two listeners cannot interleave one student's changes
+     */
+    private synchronized void applyPending() {
+        AttendanceChangedEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            set(event.getStudentId(), event.getClassId(), event.getAttendanceDate(), event.getNewStatus());
+        }
+    }
+
+    /**
+     * Record a student's status for a day, or clear it when status is null
+     * The class tally moves by the status the bitmap held, so a replayed or overwritten row is not counted twice
+     */
+    private void set(Long studentId, Long classId, LocalDate date, AttendanceStatus status) {
+        if (loadedFrom == null || date.isBefore(loadedFrom)) {
+            return;
+        }
+        StudentBitmap bitmap = status != null
+                ? students.computeIfAbsent(studentId, id -> new StudentBitmap())
+                : students.get(studentId);
+        if (bitmap == null) {
+            return;
+        }
+        AttendanceStatus previous = bitmap.set(date, status);
+        if (classId != null && previous != status) {
+            ClassTally tally = classes.computeIfAbsent(classId, id -> new ClassTally());
+            if (previous != null) {
+                tally.add(date, previous, -1);
+            }
+            if (status != null) {
+                tally.add(date, status, 1);
+            }
+        }
+    }
+
+    private List<Long> sample(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        Collections.shuffle(all);
+        return all.subList(0, Math.min(verifySampleSize, all.size()));
+    }
+
+    private Map<Long, Map<AttendanceStatus, Long>> groupedCounts(String sql, LocalDate from, LocalDate to, List<Long> ids) {
+        Map<Long, Map<AttendanceStatus, Long>> counts = new HashMap<>();
+        if (ids.isEmpty()) {
+            return counts;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+            ps.setArray(3, connection.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> counts
+                .computeIfAbsent(rs.getLong(1), id -> new EnumMap<>(AttendanceStatus.class))
+                .put(AttendanceStatus.valueOf(rs.getString(2)), rs.getLong(3)));
+        return counts;
+    }
+
+    private int schoolYearOf(LocalDate date) {
+        return date.getMonthValue() >= schoolYearStartMonth ? date.getYear() : date.getYear() - 1;
+    }
+
+    private LocalDate yearStart(int schoolYear) {
+        return LocalDate.of(schoolYear, schoolYearStartMonth, 1);
+    }
+
+    private int dayOffset(LocalDate date, int schoolYear) {
+        return (int) ChronoUnit.DAYS.between(yearStart(schoolYear), date);
+    }
+
+    /**
+     * Count set bits of one status bitmap between two day offsets, inclusive
+     */
+    private static long popcount(long[] bits, AttendanceStatus status, int from, int to) {
+        int base = status.ordinal() * WORDS_PER_YEAR;
+        long count = 0;
+        for (int word = from >>> 6; word <= to >>> 6; word++) {
+            long mask = -1L;
+            if (word == from >>> 6) {
+                mask &= -1L << (from & 63);
+            }
+            if (word == to >>> 6) {
+                mask &= -1L >>> (63 - (to & 63));
+            }
+            count += Long.bitCount(bits[base + word] & mask);
+        }
+        return count;
+    }
+
+    /**
+     * Find the latest marked non-absent day at or before an offset, or -1 if there is none
+     */
+    private static int lastNonAbsentDay(long[] bits, int offset) {
+        for (int word = offset >>> 6; word >= 0; word--) {
+            long marked = 0;
+            for (AttendanceStatus status : STATUSES) {
+                if (status != AttendanceStatus.ABSENT) {
+                    marked |= bits[status.ordinal() * WORDS_PER_YEAR + word];
+                }
+            }
+            if (word == offset >>> 6) {
+                marked &= -1L >>> (63 - (offset & 63));
+            }
+            if (marked != 0) {
+                return (word << 6) + 63 - Long.numberOfLeadingZeros(marked);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Bitsets for one student, keyed by school year
+     */
+    private final class StudentBitmap {
+        private final TreeMap<Integer, long[]> years = new TreeMap<>();
+
+        /**
+         * Set or clear one day and return the status it held before
+         */
+        synchronized AttendanceStatus set(LocalDate date, AttendanceStatus status) {
+            int schoolYear = schoolYearOf(date);
+            int offset = dayOffset(date, schoolYear);
+            long[] bits = years.get(schoolYear);
+            if (bits == null) {
+                if (status == null) {
+                    return null;
+                }
+                bits = new long[WORDS_PER_BITMAP];
+                years.put(schoolYear, bits);
+            }
+
+            int word = offset >>> 6;
+            long bit = 1L << (offset & 63);
+            AttendanceStatus previous = null;
+            for (AttendanceStatus candidate : STATUSES) {
+                int index = candidate.ordinal() * WORDS_PER_YEAR + word;
+                if ((bits[index] & bit) != 0) {
+                    previous = candidate;
+                }
+                if (candidate == status) {
+                    bits[index] |= bit;
+                } else {
+                    bits[index] &= ~bit;
+                }
+            }
+            return previous;
+        }
+
+        synchronized void addCounts(Map<AttendanceStatus, Long> counts, LocalDate startDate, LocalDate endDate) {
+            int startYear = schoolYearOf(startDate);
+            int endYear = schoolYearOf(endDate);
+            for (Map.Entry<Integer, long[]> entry : years.subMap(startYear, true, endYear, true).entrySet()) {
+                int schoolYear = entry.getKey();
+                int from = schoolYear == startYear ? dayOffset(startDate, schoolYear) : 0;
+                int to = schoolYear == endYear ? dayOffset(endDate, schoolYear)
+                        : dayOffset(yearStart(schoolYear + 1).minusDays(1), schoolYear);
+                for (AttendanceStatus status : STATUSES) {
+                    long count = popcount(entry.getValue(), status, from, to);
+                    if (count > 0) {
+                        counts.merge(status, count, Long::sum);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Streak length, or -1 when no non-absent day is found before the first loaded day
+         */
+        synchronized long consecutiveAbsences(LocalDate asOf) {
+            long streak = 0;
+            int asOfYear = schoolYearOf(asOf);
+            NavigableMap<Integer, long[]> candidates = years.headMap(asOfYear, true).descendingMap();
+            for (Map.Entry<Integer, long[]> entry : candidates.entrySet()) {
+                int schoolYear = entry.getKey();
+                long[] bits = entry.getValue();
+                int offset = schoolYear == asOfYear ? dayOffset(asOf, schoolYear)
+                        : dayOffset(yearStart(schoolYear + 1).minusDays(1), schoolYear);
+
+                int lastOther = lastNonAbsentDay(bits, offset);
+                if (lastOther >= 0) {
+                    return lastOther < offset
+                            ? streak + popcount(bits, AttendanceStatus.ABSENT, lastOther + 1, offset)
+                            : streak;
+                }
+                streak += popcount(bits, AttendanceStatus.ABSENT, 0, offset);
+            }
+            return -1;
+        }
+
+        synchronized int yearCount() {
+            return years.size();
+        }
+    }
+
+    /**
+     * Per-day status counts for one class, keyed by school year
+     */
+    private final class ClassTally {
+        private final TreeMap<Integer, int[]> years = new TreeMap<>();
+
+        synchronized void add(LocalDate date, AttendanceStatus status, int delta) {
+            int schoolYear = schoolYearOf(date);
+            int[] days = years.computeIfAbsent(schoolYear, year -> new int[DAYS_PER_YEAR * STATUSES.length]);
+            days[status.ordinal() * DAYS_PER_YEAR + dayOffset(date, schoolYear)] += delta;
+        }
+
+        synchronized void addCounts(Map<AttendanceStatus, Long> counts, LocalDate startDate, LocalDate endDate) {
+            int startYear = schoolYearOf(startDate);
+            int endYear = schoolYearOf(endDate);
+            for (Map.Entry<Integer, int[]> entry : years.subMap(startYear, true, endYear, true).entrySet()) {
+                int schoolYear = entry.getKey();
+                int from = schoolYear == startYear ? dayOffset(startDate, schoolYear) : 0;
+                int to = schoolYear == endYear ? dayOffset(endDate, schoolYear) : DAYS_PER_YEAR - 1;
+                int[] days = entry.getValue();
+                for (AttendanceStatus status : STATUSES) {
+                    long count = 0;
+                    int base = status.ordinal() * DAYS_PER_YEAR;
+                    for (int day = from; day <= to; day++) {
+                        count += days[base + day];
+                    }
+                    if (count > 0) {
+                        counts.merge(status, count, Long::sum);
+                    }
+                }
+            }
+        }
+
+        synchronized int yearCount() {
+            return years.size();
+        }
+    }
+}
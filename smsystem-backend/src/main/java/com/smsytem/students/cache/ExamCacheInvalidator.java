@@ -0,0 +1,53 @@
+package com.smsytem.students.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.smsytem.students.event.ExamChangedEvent;
+import com.smsytem.students.event.ExamResultsChangedEvent;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Evicts exam-derived cache entries once a write to exam results has committed
+ * Evicting after commit keeps a concurrent reader from re-caching the old values
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class ExamCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamResultsChanged(ExamResultsChangedEvent event) {
+        evict(ExamCacheNames.EXAM_RANKS, event.getExamId());
+        evict(ExamCacheNames.EXAM_STATISTICS, event.getExamId());
+        // Subject rankings span several exams, so they are cleared as a whole
+        clear(ExamCacheNames.SUBJECT_RANKS);
+        log.debug("Evicted cached rankings and statistics for exam {}", event.getExamId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        evict(ExamCacheNames.EXAM_OVERVIEW, ExamCacheNames.OVERVIEW_KEY);
+        log.debug("Evicted exam overview after a change to exams {}", event.getExamIds());
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
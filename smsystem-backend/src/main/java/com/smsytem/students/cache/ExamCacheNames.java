@@ -0,0 +1,18 @@
+package com.smsytem.students.cache;
+
+/**
+ * Names of the Spring caches holding values derived from exams and exam results
+ */
+public final class ExamCacheNames {
+
+    public static final String EXAM_RANKS = "examRanks"; // keyed by exam ID
+    public static final String SUBJECT_RANKS = "subjectRanks"; // keyed by subject ID and class ID
+    public static final String EXAM_STATISTICS = "examStatistics"; // keyed by exam ID
+    public static final String EXAM_OVERVIEW = "examOverview"; // single entry under OVERVIEW_KEY
+    public static final String EXAM_CALENDARS = "examCalendars"; // iCalendar text keyed by class ID and exam calendar version
+
+    public static final String OVERVIEW_KEY = "all";
+
+    private ExamCacheNames() {
+    }
+}
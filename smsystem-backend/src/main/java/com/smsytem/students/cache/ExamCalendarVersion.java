@@ -0,0 +1,42 @@
+package com.smsytem.students.cache;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.smsytem.students.event.ExamChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory modification counter for the exams table, used as the ETag of exam lists and to key cached calendars
+ * Bumped after every exam change commits, so answering a poll never touches the database.
+ * The counter starts from the boot time in milliseconds, so tags issued before a restart cannot match later ones.
+ */
+@Component
+@Slf4j
+public class ExamCalendarVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        log.debug("Exam calendar version is now {}", version.incrementAndGet());
+    }
+
+    /**
+     * Version covering every exam change committed so far
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * ETag for exam lists as of now; it includes today's date because "today" and "upcoming" move with it
+     */
+    public String currentETag() {
+        return "\"exams-" + current() + "-" + LocalDate.now() + "\"";
+    }
+}
@@ -0,0 +1,207 @@
+package com.smsytem.students.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.smsytem.students.event.ExamResultsChangedEvent;
+import com.smsytem.students.event.ExamResultsChangedEvent.MarkChange;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process quantile sketch of marks for every exam, leaving out absent students
+ * Loaded at startup with one grouped scan; after that each committed write moves its results
+ * from their old bins to their new ones, so no request ever sorts result rows to answer a percentile.
+ * An exam is read again from the database only when a change cannot be applied as a delta:
+ * while the startup scan runs, while the exam is already being read, or when the old marks are unknown.
+ */
+@Component
+@Slf4j
+public class ExamMarkSketches {
+
+    private static final String BIN_EXPRESSION =
+            "FLOOR(er.marks_obtained * " + (100 * MarkSketch.BINS_PER_PERCENT) + " / er.total_marks)";
+
+    private static final String COUNTED = "er.total_marks > 0 AND er.is_absent IS NOT TRUE";
+
+    private static final String LOAD_SQL =
+            "SELECT er.exam_id, " + BIN_EXPRESSION + " AS bin, COUNT(*) FROM exam_results er " +
+            "WHERE " + COUNTED + " GROUP BY er.exam_id, bin";
+
+    private static final String LOAD_EXAM_SQL =
+            "SELECT er.exam_id, " + BIN_EXPRESSION + " AS bin, COUNT(*) FROM exam_results er " +
+            "WHERE " + COUNTED + " AND er.exam_id = ? GROUP BY er.exam_id, bin";
+
+    private final ConcurrentHashMap<Long, MarkSketch> sketches = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+
+    // Guarded by this; queries run outside the monitor
+    private final Set<Long> staleExams = new HashSet<>();
+    private final Set<Long> readingExams = new HashSet<>();
+    private boolean loading = true;
+
+    private volatile boolean ready;
+
+    public ExamMarkSketches(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        Map<Long, Map<Integer, Long>> loaded = query(LOAD_SQL);
+        synchronized (this) {
+            loaded.forEach((examId, bins) -> sketches.put(examId, toSketch(bins)));
+            loading = false;
+        }
+        ready = true;
+
+        // Exams written while the scan ran are read again, since the scan may or may not include the writes
+        readStaleExams();
+        log.info("Loaded mark sketches for {} exams in {} ms", loaded.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Apply a committed write to its exam's sketch
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamResultsChanged(ExamResultsChangedEvent event) {
+        Long examId = event.getExamId();
+        boolean read;
+        synchronized (this) {
+            if (loading || readingExams.contains(examId) || !apply(examId, event.getMarkChanges())) {
+                staleExams.add(examId);
+            }
+            read = !loading && !staleExams.isEmpty();
+        }
+        if (read) {
+            readStaleExams();
+        }
+    }
+
+    /**
+     * Sketch of one exam; empty when it has no counted results
+     */
+    public MarkSketch sketchFor(Long examId) {
+        return sketches.getOrDefault(examId, MarkSketch.EMPTY);
+    }
+
+    /**
+     * Merged sketch of several exams
+     */
+    public MarkSketch merged(Collection<Long> examIds) {
+        List<MarkSketch> selected = new ArrayList<>(examIds.size());
+        for (Long examId : examIds) {
+            MarkSketch sketch = sketches.get(examId);
+            if (sketch != null) {
+                selected.add(sketch);
+            }
+        }
+        return MarkSketch.merge(selected);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Move the changed results between bins; false when the changes are unknown or do not fit the sketch
+     */
+    private boolean apply(Long examId, List<MarkChange> markChanges) {
+        if (markChanges == null) {
+            return false;
+        }
+        MarkSketch sketch = sketches.getOrDefault(examId, MarkSketch.EMPTY);
+        for (MarkChange change : markChanges) {
+            if (counts(change.getPreviousMarks(), change.getPreviousTotal())) {
+                sketch = sketch.plus(MarkSketch.binOf(change.getPreviousMarks(), change.getPreviousTotal()), -1);
+                if (sketch == null) {
+                    return false;
+                }
+            }
+            if (counts(change.getNewMarks(), change.getNewTotal())) {
+                sketch = sketch.plus(MarkSketch.binOf(change.getNewMarks(), change.getNewTotal()), 1);
+            }
+        }
+        install(examId, sketch);
+        return true;
+    }
+
+    /**
+     * Read every stale exam again; writes that arrive during a read mark the exam stale once more
+     */
+    private void readStaleExams() {
+        while (true) {
+            Long examId;
+            synchronized (this) {
+                examId = staleExams.stream().filter(id -> !readingExams.contains(id)).findFirst().orElse(null);
+                if (examId == null) {
+                    return;
+                }
+                staleExams.remove(examId);
+                readingExams.add(examId);
+            }
+
+            Map<Integer, Long> bins;
+            try {
+                bins = query(LOAD_EXAM_SQL, examId).get(examId);
+            } catch (RuntimeException e) {
+                // Left stale, so the next write to any exam retries the read
+                synchronized (this) {
+                    staleExams.add(examId);
+                    readingExams.remove(examId);
+                }
+                throw e;
+            }
+            synchronized (this) {
+                install(examId, bins != null ? toSketch(bins) : MarkSketch.EMPTY);
+                readingExams.remove(examId);
+            }
+        }
+    }
+
+    private void install(Long examId, MarkSketch sketch) {
+        if (sketch.getCount() == 0) {
+            sketches.remove(examId);
+        } else {
+            sketches.put(examId, sketch);
+        }
+    }
+
+    private static boolean counts(Double marks, Double total) {
+        return marks != null && total != null && total > 0;
+    }
+
+    private Map<Long, Map<Integer, Long>> query(String sql, Object... args) {
+        Map<Long, Map<Integer, Long>> bins = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> bins
+                .computeIfAbsent(rs.getLong(1), id -> new HashMap<>())
+                .merge(rs.getInt(2), rs.getLong(3), Long::sum), args);
+        return bins;
+    }
+
+    private static MarkSketch toSketch(Map<Integer, Long> bins) {
+        int[] indexes = new int[bins.size()];
+        long[] counts = new long[bins.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Long> bin : bins.entrySet()) {
+            indexes[i] = bin.getKey();
+            counts[i] = bin.getValue();
+            i++;
+        }
+        return MarkSketch.fromBins(indexes, counts);
+    }
+}
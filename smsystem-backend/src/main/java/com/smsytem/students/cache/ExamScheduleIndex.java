@@ -0,0 +1,320 @@
+package com.smsytem.students.cache;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.smsytem.students.event.ExamChangedEvent;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process interval index of scheduled exam slots
+ * Slots are grouped into lanes by date and by the class or the creating teacher, each lane sorted by
+ * start time, so a conflict check is a range lookup instead of a query per pair of exams.
+ * Refreshed for the changed exams after each exam change commits, and reloaded in full periodically to pick up
+ * writes made by other instances.
+ */
+@Component
+@Slf4j
+public class ExamScheduleIndex {
+
+    private static final String SLOT_COLUMNS =
+            "SELECT exam_id, exam_name, exam_date, class_id, created_by, start_time, end_time FROM exams " +
+            "WHERE status <> 'CANCELLED' AND start_time IS NOT NULL AND end_time > start_time";
+
+    private static final String LOAD_EXAMS_SQL = SLOT_COLUMNS + " AND exam_id = ANY (?)";
+
+    /**
+     * What two overlapping slots share
+     */
+    public enum Resource {
+        CLASS,
+        CREATOR
+    }
+
+    private final Set<Long> changedExams = ConcurrentHashMap.newKeySet();
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Lanes lanes = new Lanes();
+    // Starts true so changes made before the first load are replayed once it finishes
+    private volatile boolean loading = true;
+
+    public ExamScheduleIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.exams.schedule-index.reload-ms:600000}",
+               initialDelayString = "${app.exams.schedule-index.reload-ms:600000}")
+    public synchronized void load() {
+        long started = System.currentTimeMillis();
+        loading = true;
+        Lanes loaded = new Lanes();
+        jdbcTemplate.query(SLOT_COLUMNS, (RowCallbackHandler) rs -> loaded.add(toSlot(rs)));
+        lanes = loaded;
+        loading = false;
+
+        // Exams changed while the scan ran are read again so the scan cannot overwrite newer data
+        replayChanges();
+        log.debug("Loaded {} exam slots in {} ms", loaded.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Re-read the changed exams' slots once the change has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        changedExams.addAll(event.getExamIds());
+        if (!loading) {
+            replayChanges();
+        }
+    }
+
+    /**
+     * Existing slots that overlap the candidate, ignoring the candidate's own exam
+     */
+    public List<Conflict> findConflicts(Slot candidate) {
+        return lanes.overlapping(candidate, candidate.getExamId() != null
+                ? Collections.singleton(candidate.getExamId()) : Collections.emptySet());
+    }
+
+    /**
+     * Check a whole schedule at once: every slot against the stored exams and against the other slots
+     * Stored exams that appear in the schedule are judged by their new slot only.
+     * Each clashing pair inside the schedule is reported once, on the later slot.
+     */
+    public Map<Slot, List<Conflict>> validate(List<Slot> candidates) {
+        Set<Long> rescheduled = new HashSet<>();
+        for (Slot candidate : candidates) {
+            if (candidate.getExamId() != null) {
+                rescheduled.add(candidate.getExamId());
+            }
+        }
+
+        Map<Slot, List<Conflict>> conflicts = new HashMap<>();
+        Lanes proposed = new Lanes();
+        for (Slot candidate : candidates) {
+            List<Conflict> found = new ArrayList<>(lanes.overlapping(candidate, rescheduled));
+            found.addAll(proposed.overlapping(candidate, Collections.emptySet()));
+            if (!found.isEmpty()) {
+                conflicts.put(candidate, found);
+            }
+            proposed.add(candidate);
+        }
+        return conflicts;
+    }
+
+    private void replayChanges() {
+        List<Long> examIds = new ArrayList<>();
+        for (Long examId : new ArrayList<>(changedExams)) {
+            if (changedExams.remove(examId)) {
+                examIds.add(examId);
+            }
+        }
+        if (examIds.isEmpty()) {
+            return;
+        }
+
+        // One query for the whole batch; exams it no longer returns are dropped from the index
+        Map<Long, Slot> slots = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOAD_EXAMS_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", examIds.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Slot slot = toSlot(rs);
+            slots.put(slot.getExamId(), slot);
+        });
+        for (Long examId : examIds) {
+            lanes.replace(examId, slots.get(examId));
+        }
+    }
+
+    private static Slot toSlot(ResultSet rs) throws SQLException {
+        Time startTime = rs.getTime("start_time");
+        Time endTime = rs.getTime("end_time");
+        return new Slot(rs.getLong("exam_id"), null, rs.getString("exam_name"),
+                rs.getDate("exam_date").toLocalDate(), rs.getObject("class_id", Long.class),
+                rs.getObject("created_by", Long.class), startTime.toLocalTime(), endTime.toLocalTime());
+    }
+
+    /**
+     * One exam's place in the timetable; position is its index in a schedule being validated
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Slot {
+        private final Long examId;
+        private final Integer position;
+        private final String examName;
+        private final LocalDate examDate;
+        private final Long classId;
+        private final Long createdBy;
+        private final LocalTime startTime;
+        private final LocalTime endTime;
+
+        int startSecond() {
+            return startTime.toSecondOfDay();
+        }
+
+        int endSecond() {
+            return endTime.toSecondOfDay();
+        }
+    }
+
+    /**
+     * An existing slot that overlaps a candidate, and what the two share
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Conflict {
+        private final Resource resource;
+        private final Slot existing;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static final class LaneKey {
+        private final LocalDate examDate;
+        private final Resource resource;
+        private final Long resourceId;
+    }
+
+    /**
+     * Slots sharing one class or teacher on one day, keyed by start second
+     * Remembering the longest slot bounds how far back an overlapping slot can start,
+     * so a lookup is one sub-map walk over only the slots that can reach the candidate.
+     */
+    private static final class Lane {
+        private final TreeMap<Integer, List<Slot>> byStart = new TreeMap<>();
+        private int longestSeconds;
+
+        void add(Slot slot) {
+            byStart.computeIfAbsent(slot.startSecond(), start -> new ArrayList<>(1)).add(slot);
+            longestSeconds = Math.max(longestSeconds, slot.endSecond() - slot.startSecond());
+        }
+
+        void remove(Slot slot) {
+            List<Slot> starting = byStart.get(slot.startSecond());
+            if (starting != null) {
+                starting.remove(slot);
+                if (starting.isEmpty()) {
+                    byStart.remove(slot.startSecond());
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return byStart.isEmpty();
+        }
+
+        void collectOverlapping(Slot candidate, Collection<Long> ignoredExamIds, Resource resource, List<Conflict> out) {
+            int start = candidate.startSecond();
+            int end = candidate.endSecond();
+            for (List<Slot> starting : byStart.subMap(start - longestSeconds, false, end, false).values()) {
+                for (Slot slot : starting) {
+                    if (slot.endSecond() > start
+                            && (slot.getExamId() == null || !ignoredExamIds.contains(slot.getExamId()))) {
+                        out.add(new Conflict(resource, slot));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Every lane plus the slot currently stored for each exam; guarded by its own monitor
+     */
+    private static final class Lanes {
+        private final Map<LaneKey, Lane> lanes = new HashMap<>();
+        private final Map<Long, Slot> slotsByExam = new HashMap<>();
+
+        synchronized int size() {
+            return slotsByExam.size();
+        }
+
+        synchronized void add(Slot slot) {
+            if (slot.getExamId() != null) {
+                slotsByExam.put(slot.getExamId(), slot);
+            }
+            for (LaneKey key : keysOf(slot)) {
+                lanes.computeIfAbsent(key, k -> new Lane()).add(slot);
+            }
+        }
+
+        synchronized void replace(Long examId, Slot slot) {
+            Slot previous = slotsByExam.remove(examId);
+            if (previous != null) {
+                for (LaneKey key : keysOf(previous)) {
+                    Lane lane = lanes.get(key);
+                    if (lane != null) {
+                        lane.remove(previous);
+                        if (lane.isEmpty()) {
+                            lanes.remove(key);
+                        }
+                    }
+                }
+            }
+            if (slot != null) {
+                add(slot);
+            }
+        }
+
+        synchronized List<Conflict> overlapping(Slot candidate, Collection<Long> ignoredExamIds) {
+            List<Conflict> conflicts = new ArrayList<>();
+            if (candidate.endSecond() <= candidate.startSecond()) {
+                return conflicts;
+            }
+            if (candidate.getClassId() != null) {
+                Lane lane = lanes.get(new LaneKey(candidate.getExamDate(), Resource.CLASS, candidate.getClassId()));
+                if (lane != null) {
+                    lane.collectOverlapping(candidate, ignoredExamIds, Resource.CLASS, conflicts);
+                }
+            }
+            if (candidate.getCreatedBy() != null) {
+                Lane lane = lanes.get(new LaneKey(candidate.getExamDate(), Resource.CREATOR, candidate.getCreatedBy()));
+                if (lane != null) {
+                    lane.collectOverlapping(candidate, ignoredExamIds, Resource.CREATOR, conflicts);
+                }
+            }
+            return conflicts;
+        }
+
+        private static List<LaneKey> keysOf(Slot slot) {
+            List<LaneKey> keys = new ArrayList<>(2);
+            if (slot.getClassId() != null) {
+                keys.add(new LaneKey(slot.getExamDate(), Resource.CLASS, slot.getClassId()));
+            }
+            if (slot.getCreatedBy() != null) {
+                keys.add(new LaneKey(slot.getExamDate(), Resource.CREATOR, slot.getCreatedBy()));
+            }
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.smsytem.students.cache;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.smsytem.students.entity.Exam;
+import com.smsytem.students.entity.Exam.ExamType;
+import com.smsytem.students.entity.GradeScaleBand;
+import com.smsytem.students.event.GradeScaleChangedEvent;
+import com.smsytem.students.grading.GradeScale;
+import com.smsytem.students.repository.GradeScaleBandRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory lookup of every stored grade scale
+ * Loaded once at startup and swapped as a whole after a scale change commits, so readers never
+ * see a half-updated table and grading never touches the database.
+ * Lookup goes from most to least specific: year and exam type, year only, exam type only, any,
+ * then the built-in scale from Grade.minPercentage.
+ */
+@Component
+@Slf4j
+public class GradeScaleTable {
+
+    private final GradeScaleBandRepository gradeScaleBandRepository;
+    private final int schoolYearStartMonth;
+
+    private volatile Map<ScaleKey, GradeScale> scales = Collections.emptyMap();
+
+    public GradeScaleTable(GradeScaleBandRepository gradeScaleBandRepository,
+                           @Value("${app.attendance.school-year-start-month:1}") int schoolYearStartMonth) {
+        this.gradeScaleBandRepository = gradeScaleBandRepository;
+        this.schoolYearStartMonth = schoolYearStartMonth;
+    }
+
+    @PostConstruct
+    public void refresh() {
+        List<GradeScaleBand> bands = gradeScaleBandRepository.findAllOrdered();
+        Map<ScaleKey, GradeScale> loaded = new LinkedHashMap<>();
+        bands.stream()
+                .collect(Collectors.groupingBy(band -> new ScaleKey(band.getAcademicYear(), band.getExamType()),
+                        LinkedHashMap::new,
+                        // Rows left over from an unserialized write must not stop the application from starting
+                        Collectors.toMap(GradeScaleBand::getGrade, GradeScaleBand::getMinPercentage,
+                                (kept, duplicate) -> kept)))
+                .forEach((key, minPercentages) -> loaded.put(key, GradeScale.of(minPercentages)));
+        scales = Collections.unmodifiableMap(loaded);
+        log.info("Loaded {} grade scales ({} bands)", loaded.size(), bands.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGradeScaleChanged(GradeScaleChangedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Scale for an exam, chosen by the academic year of its date and its type
+     */
+    public GradeScale scaleFor(Exam exam) {
+        Integer academicYear = exam.getExamDate() != null ? academicYearOf(exam.getExamDate()) : null;
+        return scaleFor(academicYear, exam.getExamType());
+    }
+
+    public GradeScale scaleFor(Integer academicYear, ExamType examType) {
+        Map<ScaleKey, GradeScale> current = scales;
+        GradeScale scale = current.get(new ScaleKey(academicYear, examType));
+        if (scale == null) {
+            scale = current.get(new ScaleKey(academicYear, null));
+        }
+        if (scale == null) {
+            scale = current.get(new ScaleKey(null, examType));
+        }
+        if (scale == null) {
+            scale = current.get(new ScaleKey(null, null));
+        }
+        return scale != null ? scale : GradeScale.DEFAULT;
+    }
+
+    /**
+     * Every stored scale, keyed by academic year and exam type
+     */
+    public Map<ScaleKey, GradeScale> getScales() {
+        return scales;
+    }
+
+    /**
+     * Academic year a date belongs to, named after the calendar year it starts in
+     */
+    public int academicYearOf(LocalDate date) {
+        return date.getMonthValue() >= schoolYearStartMonth ? date.getYear() : date.getYear() - 1;
+    }
+
+    /**
+     * Identifies one scale; either part may be null
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static final class ScaleKey {
+        private final Integer academicYear;
+        private final ExamType examType;
+    }
+}
@@ -0,0 +1,145 @@
+package com.smsytem.students.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Mergeable quantile sketch of marks as a percentage of total marks
+ * Counts are kept in fixed bins of 0.1 percentage points, so two sketches merge by adding bins
+ * and a written result moves one count from its old bin to its new one. Unlike t-digest or KLL,
+ * fixed bins are exact to the bin width and allow a result to be taken out again.
+ * Only occupied bins are stored, so an exam costs memory in proportion to its distinct marks.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class MarkSketch {
+
+    public static final int BINS_PER_PERCENT = 10;
+    public static final int BIN_COUNT = 100 * BINS_PER_PERCENT + 1; // 0.0 .. 100.0
+
+    public static final MarkSketch EMPTY = new MarkSketch(new int[0], new long[0], 0);
+
+    private final int[] bins; // occupied bin indexes, ascending
+    private final long[] counts;
+    private final long count;
+
+    private MarkSketch(int[] bins, long[] counts, long count) {
+        this.bins = bins;
+        this.counts = counts;
+        this.count = count;
+    }
+
+    /**
+     * Bin of a mark; the same arithmetic as FLOOR(marks * 1000 / total) in SQL, clamped to 0..1000
+     */
+    public static int binOf(double marksObtained, double totalMarks) {
+        return clamp((int) Math.floor(marksObtained * (100 * BINS_PER_PERCENT) / totalMarks));
+    }
+
+    /**
+     * Build a sketch from (bin, count) pairs; bins outside 0..1000 are clamped
+     */
+    public static MarkSketch fromBins(int[] binIndexes, long[] binCounts) {
+        long[] dense = new long[BIN_COUNT];
+        for (int i = 0; i < binIndexes.length; i++) {
+            dense[clamp(binIndexes[i])] += binCounts[i];
+        }
+        return compact(dense);
+    }
+
+    /**
+     * Combine sketches, e.g. every exam of a subject or of the whole school
+     */
+    public static MarkSketch merge(Collection<MarkSketch> sketches) {
+        long[] dense = new long[BIN_COUNT];
+        for (MarkSketch sketch : sketches) {
+            for (int i = 0; i < sketch.bins.length; i++) {
+                dense[sketch.bins[i]] += sketch.counts[i];
+            }
+        }
+        return compact(dense);
+    }
+
+    /**
+     * Sketch with delta added to one bin; null when that would leave the bin below zero
+     */
+    public MarkSketch plus(int bin, long delta) {
+        int at = Arrays.binarySearch(bins, bin);
+        long current = at >= 0 ? counts[at] : 0;
+        if (current + delta < 0) {
+            return null;
+        }
+        if (at >= 0 && current + delta == 0) {
+            int[] newBins = new int[bins.length - 1];
+            long[] newCounts = new long[bins.length - 1];
+            System.arraycopy(bins, 0, newBins, 0, at);
+            System.arraycopy(bins, at + 1, newBins, at, bins.length - at - 1);
+            System.arraycopy(counts, 0, newCounts, 0, at);
+            System.arraycopy(counts, at + 1, newCounts, at, bins.length - at - 1);
+            return new MarkSketch(newBins, newCounts, count + delta);
+        }
+        if (at >= 0) {
+            long[] newCounts = counts.clone();
+            newCounts[at] += delta;
+            return new MarkSketch(bins, newCounts, count + delta);
+        }
+        int insertAt = -at - 1;
+        int[] newBins = new int[bins.length + 1];
+        long[] newCounts = new long[bins.length + 1];
+        System.arraycopy(bins, 0, newBins, 0, insertAt);
+        System.arraycopy(counts, 0, newCounts, 0, insertAt);
+        newBins[insertAt] = bin;
+        newCounts[insertAt] = delta;
+        System.arraycopy(bins, insertAt, newBins, insertAt + 1, bins.length - insertAt);
+        System.arraycopy(counts, insertAt, newCounts, insertAt + 1, bins.length - insertAt);
+        return new MarkSketch(newBins, newCounts, count + delta);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Percentage at quantile q (0..1), accurate to the 0.1 point bin it falls in
+     * Returns NaN for an empty sketch
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        // Nearest-rank: the smallest value with at least q of all results at or below it
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < bins.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return (double) bins[i] / BINS_PER_PERCENT;
+            }
+        }
+        return 100.0;
+    }
+
+    private static MarkSketch compact(long[] dense) {
+        int occupied = 0;
+        long count = 0;
+        for (long binCount : dense) {
+            if (binCount != 0) {
+                occupied++;
+                count += binCount;
+            }
+        }
+        int[] bins = new int[occupied];
+        long[] counts = new long[occupied];
+        for (int i = 0, j = 0; i < dense.length; i++) {
+            if (dense[i] != 0) {
+                bins[j] = i;
+                counts[j++] = dense[i];
+            }
+        }
+        return new MarkSketch(bins, counts, count);
+    }
+
+    private static int clamp(int bin) {
+        return Math.max(0, Math.min(BIN_COUNT - 1, bin));
+    }
+}
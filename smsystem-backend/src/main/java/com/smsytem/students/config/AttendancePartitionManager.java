@@ -0,0 +1,194 @@
+package com.smsytem.students.config;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the attendance table range-partitioned by month on attendance_date
+ * On first start the plain table created by Hibernate is converted in one transaction;
+ * afterwards partitions are created ahead of time so date-bounded queries only touch the months they ask for.
+ * Enabled with app.attendance.partitioning.enabled=true; all DDL runs under an advisory lock
+ * so several instances can start or run the schedule at the same time.
+ */
+@Component
+@ConditionalOnProperty(name = "app.attendance.partitioning.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class AttendancePartitionManager implements ApplicationRunner {
+
+    private static final long PARTITION_LOCK_KEY = 4_208_311_001L;
+    private static final String LEGACY_TABLE = "attendance_unpartitioned";
+    private static final String DEFAULT_PARTITION = "attendance_default";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT c.relkind = 'p' FROM pg_class c WHERE c.oid = to_regclass('attendance')";
+
+    private static final String CARRIED_CONSTRAINTS_SQL =
+            "SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint " +
+            "WHERE conrelid = to_regclass('" + LEGACY_TABLE + "') AND contype IN ('u', 'f') ORDER BY contype DESC";
+
+    private static final String CREATE_PARTITIONED_SQL =
+            "CREATE TABLE attendance (" +
+            "attendance_id bigint NOT NULL DEFAULT nextval('attendance_partitioned_id_seq'), " +
+            "student_id bigint NOT NULL, " +
+            "class_id bigint, " +
+            "attendance_date date NOT NULL, " +
+            "status varchar(255) NOT NULL, " +
+            "check_in_time time, " +
+            "check_out_time time, " +
+            "remarks varchar(255), " +
+            "marked_by bigint, " +
+            "created_at date, " +
+            "updated_at date, " +
+            "PRIMARY KEY (attendance_id, attendance_date)" +
+            ") PARTITION BY RANGE (attendance_date)";
+
+    private static final String COPY_ROWS_SQL =
+            "INSERT INTO attendance (attendance_id, student_id, class_id, attendance_date, status, check_in_time, " +
+            "check_out_time, remarks, marked_by, created_at, updated_at) " +
+            "SELECT attendance_id, student_id, class_id, attendance_date, status, check_in_time, " +
+            "check_out_time, remarks, marked_by, created_at, updated_at FROM " + LEGACY_TABLE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+
+    public AttendancePartitionManager(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.attendance.partitioning.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            if (!isPartitioned()) {
+                convertToPartitioned();
+            }
+        });
+        ensurePartitions();
+    }
+
+    /**
+     * Create any missing monthly partitions from the current month up to the configured horizon
+     */
+    @Scheduled(cron = "${app.attendance.partitioning.cron:0 15 2 * * *}")
+    public void ensurePartitions() {
+        LocalDate firstMonth = LocalDate.now().withDayOfMonth(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            for (int i = 0; i <= monthsAhead; i++) {
+                createPartition(firstMonth.plusMonths(i));
+            }
+        });
+    }
+
+    /**
+     * Rebuild the table as a partitioned one and copy every row across
+     * Unique and foreign key constraints keep their names so Hibernate's schema update recognises them
+     */
+    private void convertToPartitioned() {
+        log.info("Converting attendance to a month-partitioned table...");
+        long startedAt = System.currentTimeMillis();
+
+        jdbcTemplate.execute("LOCK TABLE attendance IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE attendance RENAME TO " + LEGACY_TABLE);
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_attendance_class_date");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_attendance_student_date_status");
+
+        List<Map<String, Object>> constraints = jdbcTemplate.queryForList(CARRIED_CONSTRAINTS_SQL);
+        for (Map<String, Object> constraint : constraints) {
+            jdbcTemplate.execute("ALTER TABLE " + LEGACY_TABLE + " DROP CONSTRAINT \"" + constraint.get("conname") + "\"");
+        }
+
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS attendance_partitioned_id_seq");
+        jdbcTemplate.execute(CREATE_PARTITIONED_SQL);
+        jdbcTemplate.execute("ALTER SEQUENCE attendance_partitioned_id_seq OWNED BY attendance.attendance_id");
+        for (Map<String, Object> constraint : constraints) {
+            jdbcTemplate.execute("ALTER TABLE attendance ADD CONSTRAINT \"" + constraint.get("conname") + "\" "
+                    + constraint.get("definition"));
+        }
+        jdbcTemplate.execute("CREATE INDEX idx_attendance_class_date ON attendance (class_id, attendance_date)");
+        jdbcTemplate.execute("CREATE INDEX idx_attendance_student_date_status ON attendance (student_id, attendance_date, status)");
+
+        // Rows outside every monthly range land here instead of failing the insert
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF attendance DEFAULT");
+
+        LocalDate earliest = jdbcTemplate.queryForObject(
+                "SELECT MIN(attendance_date) FROM " + LEGACY_TABLE, LocalDate.class);
+        LocalDate lastMonth = LocalDate.now().withDayOfMonth(1).plusMonths(monthsAhead);
+        LocalDate latest = jdbcTemplate.queryForObject(
+                "SELECT MAX(attendance_date) FROM " + LEGACY_TABLE, LocalDate.class);
+        if (latest != null && latest.withDayOfMonth(1).isAfter(lastMonth)) {
+            lastMonth = latest.withDayOfMonth(1);
+        }
+        for (LocalDate month = earliest != null ? earliest.withDayOfMonth(1) : LocalDate.now().withDayOfMonth(1);
+                !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            createPartition(month);
+        }
+
+        int copied = jdbcTemplate.update(COPY_ROWS_SQL);
+        jdbcTemplate.execute("SELECT setval('attendance_partitioned_id_seq', "
+                + "COALESCE((SELECT MAX(attendance_id) FROM attendance), 0) + 1, false)");
+        jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+
+        log.info("Attendance partitioned: {} rows copied in {} ms", copied, System.currentTimeMillis() - startedAt);
+    }
+
+    private void createPartition(LocalDate month) {
+        String name = "attendance_p" + month.format(PARTITION_SUFFIX);
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+
+        String range = "FROM ('" + month + "') TO ('" + month.plusMonths(1) + "')";
+        Integer stranded = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + DEFAULT_PARTITION
+                + " WHERE attendance_date >= ? AND attendance_date < ?", Integer.class, month, month.plusMonths(1));
+        if (stranded == null || stranded == 0) {
+            jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF attendance FOR VALUES " + range);
+            log.info("Created attendance partition {}", name);
+            return;
+        }
+
+        // PostgreSQL refuses a new partition while the default partition holds rows for its range,
+        // so the month is built as a plain table, the rows moved into it, and then attached.
+        // Writes to the default partition wait until commit so none land between the copy and the delete.
+        jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE attendance INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("INSERT INTO " + name + " SELECT * FROM " + DEFAULT_PARTITION
+                + " WHERE attendance_date >= ? AND attendance_date < ?", month, month.plusMonths(1));
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE attendance_date >= ? AND attendance_date < ?", month, month.plusMonths(1));
+        jdbcTemplate.execute("ALTER TABLE attendance ATTACH PARTITION " + name + " FOR VALUES " + range);
+        log.info("Created attendance partition {} with {} rows moved from {}", name, moved, DEFAULT_PARTITION);
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class));
+    }
+
+    private void lock() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + PARTITION_LOCK_KEY + ")");
+    }
+}
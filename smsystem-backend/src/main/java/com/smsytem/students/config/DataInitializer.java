@@ -7,6 +7,8 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import com.smsytem.students.entity.Role;
+import com.smsytem.students.repository.AttendanceMonthlySummaryRepository;
+import com.smsytem.students.repository.AttendanceRepository;
 import com.smsytem.students.repository.RoleRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -22,6 +24,8 @@ import lombok.extern.slf4j.Slf4j;
 public class DataInitializer implements CommandLineRunner {
 
     private final RoleRepository roleRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceMonthlySummaryRepository attendanceMonthlySummaryRepository;
 
     @Override
     public void run(String... args) throws Exception {
@@ -29,6 +33,9 @@ public class DataInitializer implements CommandLineRunner {
         
         // Initialize roles
         initializeRoles();
+
+        // Initialize attendance rollups
+        initializeAttendanceRollups();
         
         log.info("Application data initialization completed successfully");
     }
@@ -64,4 +71,24 @@ public class DataInitializer implements CommandLineRunner {
         
         log.info("Roles initialization completed");
     }
+
+    /**
+     * Backfill class_id on older attendance rows, then populate the monthly rollup from them
+     * The rollup is only rebuilt when its table is empty, e.g. on first deployment
+     */
+    private void initializeAttendanceRollups() {
+        int backfilled = attendanceRepository.backfillClassIds();
+        if (backfilled > 0) {
+            log.info("Backfilled class_id on {} attendance rows", backfilled);
+        }
+
+        if (attendanceMonthlySummaryRepository.count() > 0 || attendanceRepository.count() == 0) {
+            log.debug("Attendance rollups already initialized");
+            return;
+        }
+
+        log.info("Building attendance monthly rollups...");
+        int buckets = attendanceMonthlySummaryRepository.rebuildAll();
+        log.info("Attendance rollups initialized with {} monthly buckets", buckets);
+    }
 }
@@ -5,7 +5,9 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -18,11 +20,16 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.smsytem.students.dto.AttendanceDTO;
+import com.smsytem.students.dto.AttendanceReceiptDTO;
+import com.smsytem.students.dto.AttendanceStatsDTO;
+import com.smsytem.students.dto.BulkAttendanceResultDTO;
 import com.smsytem.students.exception.ApiResponse;
 import com.smsytem.students.exception.AuthException;
 import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.service.AttendanceIngestionService;
 import com.smsytem.students.service.AttendanceService;
 
 import io.swagger.annotations.Api;
@@ -41,6 +48,7 @@ import lombok.AllArgsConstructor;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
+    private final AttendanceIngestionService attendanceIngestionService;
 
     /**
      * Mark attendance for a student
@@ -65,6 +73,26 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * Mark or overwrite attendance for a student (idempotent)
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @PutMapping("/mark")
+    @ApiOperation(value = "Mark or overwrite attendance for a student")
+    public ResponseEntity<?> upsertAttendance(@RequestBody AttendanceDTO attendanceDTO) {
+        try {
+            AttendanceDTO markedAttendance = attendanceService.upsertAttendance(attendanceDTO);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Attendance saved successfully", markedAttendance));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to save attendance: " + e.getMessage()));
+        }
+    }
+
     /**
      * Mark attendance for entire class
      */
@@ -76,9 +104,17 @@ public class AttendanceController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate attendanceDate,
             @RequestBody List<AttendanceDTO> attendanceList) {
         try {
-            List<AttendanceDTO> markedAttendance = attendanceService.markClassAttendance(classId, attendanceDate, attendanceList);
+            BulkAttendanceResultDTO result = attendanceService.markClassAttendance(classId, attendanceDate, attendanceList);
+            if (result.getErrors().isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CREATED)
+                        .body(ApiResponse.success("Class attendance marked successfully", result));
+            }
+            if (result.getSavedCount() == 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new ApiResponse<>("error", "No attendance rows were saved", result));
+            }
             return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(ApiResponse.success("Class attendance marked successfully", markedAttendance));
+                    .body(ApiResponse.success("Class attendance marked with " + result.getErrors().size() + " rejected rows", result));
         } catch (AuthException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(ApiResponse.error(e.getMessage()));
@@ -91,6 +127,86 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * Queue attendance for entire class and acknowledge with a receipt
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @PostMapping("/mark-class/{classId}/async")
+    @ApiOperation(value = "Queue attendance for entire class")
+    public ResponseEntity<?> submitClassAttendance(
+            @PathVariable Long classId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate attendanceDate,
+            @RequestBody List<AttendanceDTO> attendanceList) {
+        try {
+            AttendanceReceiptDTO receipt = attendanceIngestionService.submitClassAttendance(classId, attendanceDate, attendanceList);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Class attendance queued for writing", receipt));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to queue class attendance: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the status of a queued class attendance submission
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/receipts/{receiptId}")
+    @ApiOperation(value = "Get status of a queued attendance submission")
+    public ResponseEntity<?> getReceipt(@PathVariable String receiptId) {
+        try {
+            AttendanceReceiptDTO receipt = attendanceIngestionService.getReceipt(receiptId);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Attendance receipt retrieved successfully", receipt));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve attendance receipt: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Mark or overwrite attendance for entire class (idempotent)
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @PutMapping("/mark-class/{classId}")
+    @ApiOperation(value = "Mark or overwrite attendance for entire class")
+    public ResponseEntity<?> upsertClassAttendance(
+            @PathVariable Long classId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate attendanceDate,
+            @RequestBody List<AttendanceDTO> attendanceList) {
+        try {
+            BulkAttendanceResultDTO result = attendanceService.upsertClassAttendance(classId, attendanceDate, attendanceList);
+            if (result.getErrors().isEmpty()) {
+                return ResponseEntity.status(HttpStatus.OK)
+                        .body(ApiResponse.success("Class attendance saved successfully", result));
+            }
+            if (result.getSavedCount() == 0) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ApiResponse<>("error", "No attendance rows were saved", result));
+            }
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Class attendance saved with " + result.getErrors().size() + " rejected rows", result));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to save class attendance: " + e.getMessage()));
+        }
+    }
+
     /**
      * Update existing attendance record
      */
@@ -211,6 +327,37 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * Export attendance for a date range, optionally for one class, as CSV or NDJSON
+     * The response is streamed row by row instead of being built in memory
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/export")
+    @ApiOperation(value = "Export attendance as CSV or NDJSON")
+    public ResponseEntity<?> exportAttendance(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long classId,
+            @RequestParam(defaultValue = "csv") String format) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Unsupported export format: " + format + " (use csv or ndjson)"));
+        }
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("startDate must not be after endDate"));
+        }
+
+        String fileName = "attendance-" + startDate + "-" + endDate + (classId != null ? "-class-" + classId : "")
+                + (csv ? ".csv" : ".ndjson");
+        StreamingResponseBody body = out -> attendanceService.exportAttendance(startDate, endDate, classId, format, out);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
     /**
      * Get attendance statistics for a student
      */
@@ -222,7 +369,7 @@ public class AttendanceController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         try {
-            Map<String, Object> stats = attendanceService.getStudentAttendanceStats(studentId, startDate, endDate);
+            AttendanceStatsDTO stats = attendanceService.getStudentAttendanceStats(studentId, startDate, endDate);
             return ResponseEntity.status(HttpStatus.OK)
                     .body(ApiResponse.success("Student attendance statistics retrieved successfully", stats));
         } catch (ResourceNotFoundException e) {
@@ -277,6 +424,71 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * Get consecutive absences for a student
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'STUDENT', 'PARENT')")
+    @GetMapping("/student/{studentId}/consecutive-absences")
+    @ApiOperation(value = "Get consecutive absences for a student up to a date")
+    public ResponseEntity<?> getConsecutiveAbsences(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        try {
+            Long absences = attendanceService.getConsecutiveAbsences(studentId, asOf != null ? asOf : LocalDate.now());
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Consecutive absences retrieved successfully", absences));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve consecutive absences: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get memory footprint of the attendance bitmap index
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/index/footprint")
+    @ApiOperation(value = "Get memory footprint of the attendance bitmap index")
+    public ResponseEntity<?> getBitmapIndexFootprint() {
+        try {
+            Map<String, Object> footprint = attendanceService.getBitmapIndexFootprint();
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Bitmap index footprint retrieved successfully", footprint));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve bitmap index footprint: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Verify the attendance bitmap index against SQL for a student
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/index/verify/student/{studentId}")
+    @ApiOperation(value = "Verify the attendance bitmap index against SQL for a student")
+    public ResponseEntity<?> verifyBitmapIndex(
+            @PathVariable Long studentId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            Map<String, Object> report = attendanceService.verifyBitmapIndex(studentId, startDate, endDate);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Bitmap index verification completed", report));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to verify bitmap index: " + e.getMessage()));
+        }
+    }
+
     /**
      * Delete attendance record
      */
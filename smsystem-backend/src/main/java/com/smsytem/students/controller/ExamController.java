@@ -1,11 +1,16 @@
 package com.smsytem.students.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -18,13 +23,21 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import com.smsytem.students.cache.ExamCalendarVersion;
 import com.smsytem.students.dto.ExamDTO;
+import com.smsytem.students.dto.ExamStatusTransitionDTO;
+import com.smsytem.students.dto.RegradeJobDTO;
+import com.smsytem.students.dto.ScheduleValidationDTO;
 import com.smsytem.students.entity.Exam.ExamStatus;
 import com.smsytem.students.entity.Exam.ExamType;
 import com.smsytem.students.exception.ApiResponse;
 import com.smsytem.students.exception.AuthException;
 import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.service.ExamCalendarService;
+import com.smsytem.students.service.ExamLifecycleService;
+import com.smsytem.students.service.ExamRegradeService;
 import com.smsytem.students.service.ExamService;
 
 import io.swagger.annotations.Api;
@@ -42,7 +55,13 @@ import lombok.AllArgsConstructor;
 @Api(tags = "Exam Management")
 public class ExamController {
 
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
     private final ExamService examService;
+    private final ExamRegradeService examRegradeService;
+    private final ExamLifecycleService examLifecycleService;
+    private final ExamCalendarService examCalendarService;
+    private final ExamCalendarVersion examCalendarVersion;
 
     /**
      * Create a new exam
@@ -78,6 +97,9 @@ public class ExamController {
             ExamDTO updatedExam = examService.updateExam(examId, examDTO);
             return ResponseEntity.status(HttpStatus.OK)
                     .body(ApiResponse.success("Exam updated successfully", updatedExam));
+        } catch (AuthException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error(e.getMessage()));
@@ -87,6 +109,49 @@ public class ExamController {
         }
     }
 
+    /**
+     * Check a proposed exam schedule for overlapping slots without saving anything
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @PostMapping("/validate-schedule")
+    @ApiOperation(value = "Validate an exam schedule for class and teacher clashes")
+    public ResponseEntity<?> validateSchedule(@RequestBody List<ExamDTO> exams) {
+        try {
+            ScheduleValidationDTO validation = examService.validateSchedule(exams);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success(validation.isValid() ? "Schedule has no conflicts"
+                            : "Schedule has " + validation.getConflicts().size() + " conflicts", validation));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to validate schedule: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Move every due exam forward in its status lifecycle now, or only report what would move
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/status-transitions")
+    @ApiOperation(value = "Advance due exam statuses, optionally as a dry run")
+    public ResponseEntity<?> advanceExamStatuses(@RequestParam(defaultValue = "false") boolean dryRun) {
+        try {
+            ExamStatusTransitionDTO run = examLifecycleService.advanceStatuses(dryRun);
+            String message = run.isSkipped() ? "Another instance is advancing exam statuses"
+                    : dryRun ? "Due exam statuses listed" : "Exam statuses advanced successfully";
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success(message, run));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to advance exam statuses: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get exam by ID
      */
@@ -164,10 +229,14 @@ public class ExamController {
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'STUDENT')")
     @GetMapping("/upcoming/class/{classId}")
     @ApiOperation(value = "Get upcoming exams for a class")
-    public ResponseEntity<?> getUpcomingExamsByClass(@PathVariable Long classId) {
+    public ResponseEntity<?> getUpcomingExamsByClass(@PathVariable Long classId, ServletWebRequest webRequest) {
         try {
+            if (notModified(webRequest)) {
+                return null;
+            }
             List<ExamDTO> exams = examService.getUpcomingExamsByClass(classId);
             return ResponseEntity.status(HttpStatus.OK)
+                    .cacheControl(CacheControl.noCache())
                     .body(ApiResponse.success("Upcoming exams retrieved successfully", exams));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -175,16 +244,48 @@ public class ExamController {
         }
     }
 
+    /**
+     * Get every exam of a class as an iCalendar feed for calendar apps to subscribe to
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'STUDENT')")
+    @GetMapping(value = "/class/{classId}/calendar.ics", produces = "text/calendar")
+    @ApiOperation(value = "Get the exam calendar of a class in iCalendar format")
+    public ResponseEntity<?> getClassCalendar(@PathVariable Long classId, ServletWebRequest webRequest) {
+        try {
+            if (notModified(webRequest)) {
+                return null;
+            }
+            String calendar = examCalendarService.getClassCalendar(classId);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(TEXT_CALENDAR)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"class-" + classId + "-exams.ics\"")
+                    .body(calendar);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body("Failed to build exam calendar: " + e.getMessage());
+        }
+    }
+
     /**
      * Get today's exams
      */
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
     @GetMapping("/today")
     @ApiOperation(value = "Get today's exams")
-    public ResponseEntity<?> getTodaysExams() {
+    public ResponseEntity<?> getTodaysExams(ServletWebRequest webRequest) {
         try {
+            if (notModified(webRequest)) {
+                return null;
+            }
             List<ExamDTO> exams = examService.getTodaysExams();
             return ResponseEntity.status(HttpStatus.OK)
+                    .cacheControl(CacheControl.noCache())
                     .body(ApiResponse.success("Today's exams retrieved successfully", exams));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -200,9 +301,64 @@ public class ExamController {
     @ApiOperation(value = "Get exams by date range")
     public ResponseEntity<?> getExamsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            ServletWebRequest webRequest) {
         try {
+            if (notModified(webRequest)) {
+                return null;
+            }
             List<ExamDTO> exams = examService.getExamsByDateRange(startDate, endDate);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .cacheControl(CacheControl.noCache())
+                    .body(ApiResponse.success("Exams retrieved successfully", exams));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve exams: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get exams of a class within a date range, e.g. a term calendar
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'STUDENT')")
+    @GetMapping("/class/{classId}/date-range")
+    @ApiOperation(value = "Get exams of a class by date range")
+    public ResponseEntity<?> getExamsByClassAndDateRange(
+            @PathVariable Long classId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            ServletWebRequest webRequest) {
+        try {
+            if (notModified(webRequest)) {
+                return null;
+            }
+            List<ExamDTO> exams = examService.getExamsByClassAndDateRange(classId, startDate, endDate);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .cacheControl(CacheControl.noCache())
+                    .body(ApiResponse.success("Class exams retrieved successfully", exams));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve class exams: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Search exams page by page; every filter is optional
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/search")
+    @ApiOperation(value = "Search exams, paginated")
+    public ResponseEntity<?> searchExams(
+            @RequestParam(required = false) Long classId,
+            @RequestParam(required = false) Long subjectId,
+            @RequestParam(required = false) ExamStatus status,
+            @RequestParam(required = false) ExamType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "50") Integer size) {
+        try {
+            Page<ExamDTO> exams = examService.searchExams(classId, subjectId, status, type, startDate, endDate, page, size);
             return ResponseEntity.status(HttpStatus.OK)
                     .body(ApiResponse.success("Exams retrieved successfully", exams));
         } catch (Exception e) {
@@ -265,6 +421,48 @@ public class ExamController {
         }
     }
 
+    /**
+     * Re-grade every result of an exam in the background
+     * Runs automatically when an update changes marks, type or date; this triggers it by hand,
+     * e.g. after a grade scale change
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @PostMapping("/{examId}/regrade")
+    @ApiOperation(value = "Re-grade all results of an exam")
+    public ResponseEntity<?> regradeExam(@PathVariable Long examId) {
+        try {
+            RegradeJobDTO job = examRegradeService.startRegrade(examId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Exam re-grade queued", job));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to queue exam re-grade: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the progress of the latest re-grade of an exam
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/{examId}/regrade")
+    @ApiOperation(value = "Get re-grade progress for an exam")
+    public ResponseEntity<?> getRegradeProgress(@PathVariable Long examId) {
+        try {
+            RegradeJobDTO job = examRegradeService.getLatestRegrade(examId);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Re-grade progress retrieved successfully", job));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve re-grade progress: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get exam statistics
      */
@@ -301,4 +499,17 @@ public class ExamController {
                     .body(ApiResponse.error("Failed to delete exam: " + e.getMessage()));
         }
     }
+
+    /**
+     * Answer 304 when the client's If-None-Match still carries the current exam version
+     * Checked before the exams are queried; otherwise the ETag header is already set on the response
+     */
+    private boolean notModified(ServletWebRequest webRequest) {
+        if (!webRequest.checkNotModified(examCalendarVersion.currentETag())) {
+            return false;
+        }
+        // Keeps the default no-store header off the 304 so clients go on revalidating their copy
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return true;
+    }
 }
@@ -1,9 +1,15 @@
 package com.smsytem.students.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -16,12 +22,22 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.smsytem.students.dto.ExamRankDTO;
 import com.smsytem.students.dto.ExamResultDTO;
+import com.smsytem.students.dto.ExamResultImportDTO;
+import com.smsytem.students.dto.ExamResultPageDTO;
+import com.smsytem.students.dto.GradebookDTO;
+import com.smsytem.students.dto.MarkQuantilesDTO;
+import com.smsytem.students.dto.SubjectRankDTO;
 import com.smsytem.students.exception.ApiResponse;
 import com.smsytem.students.exception.AuthException;
 import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.service.ExamResultImportService;
 import com.smsytem.students.service.ExamResultService;
+import com.smsytem.students.service.ReportCardService;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -39,6 +55,8 @@ import lombok.AllArgsConstructor;
 public class ExamResultController {
 
     private final ExamResultService examResultService;
+    private final ReportCardService reportCardService;
+    private final ExamResultImportService examResultImportService;
 
     /**
      * Add or save exam result
@@ -57,6 +75,9 @@ public class ExamResultController {
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to save exam result: " + e.getMessage()));
@@ -77,6 +98,9 @@ public class ExamResultController {
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to update exam result: " + e.getMessage()));
@@ -188,6 +212,130 @@ public class ExamResultController {
         }
     }
 
+    /**
+     * Get failed students for an exam one keyset page at a time
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/exam/{examId}/failed-students/page")
+    @ApiOperation(value = "Get failed students for an exam, paginated by keyset")
+    public ResponseEntity<?> getFailedStudentsPage(
+            @PathVariable Long examId,
+            @RequestParam(required = false) Double afterMarks,
+            @RequestParam(required = false) Long afterResultId,
+            @RequestParam(defaultValue = "50") Integer size) {
+        try {
+            ExamResultPageDTO page = examResultService.getFailedStudentsPage(examId, afterMarks, afterResultId, size);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Failed students retrieved successfully", page));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve failed students: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get ranks and percentiles for every student in an exam
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/exam/{examId}/ranks")
+    @ApiOperation(value = "Get ranks and percentiles for an exam")
+    public ResponseEntity<?> getExamRanks(@PathVariable Long examId) {
+        try {
+            List<ExamRankDTO> ranks = examResultService.getExamRanks(examId);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Exam ranks retrieved successfully", ranks));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve exam ranks: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get ranks and percentiles for one class in an exam
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/exam/{examId}/class/{classId}/ranks")
+    @ApiOperation(value = "Get ranks and percentiles for a class in an exam")
+    public ResponseEntity<?> getClassRanksForExam(@PathVariable Long examId, @PathVariable Long classId) {
+        try {
+            List<ExamRankDTO> ranks = examResultService.getClassRanksForExam(examId, classId);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Class ranks retrieved successfully", ranks));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve class ranks: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get a class's ranking in a subject across all of its exams
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/subject/{subjectId}/class/{classId}/ranks")
+    @ApiOperation(value = "Get a class's ranking in a subject")
+    public ResponseEntity<?> getSubjectRanks(@PathVariable Long subjectId, @PathVariable Long classId) {
+        try {
+            List<SubjectRankDTO> ranks = examResultService.getSubjectRanks(subjectId, classId);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Subject ranks retrieved successfully", ranks));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve subject ranks: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the mark distribution of an exam: min, quartiles, median, max and any requested percentiles
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/exam/{examId}/quantiles")
+    @ApiOperation(value = "Get mark quantiles for an exam")
+    public ResponseEntity<?> getExamQuantiles(@PathVariable Long examId,
+                                              @RequestParam(defaultValue = "") List<Double> percentiles) {
+        try {
+            MarkQuantilesDTO quantiles = examResultService.getExamQuantiles(examId, percentiles);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Exam quantiles retrieved successfully", quantiles));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve exam quantiles: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the mark distribution across every exam of a subject and/or class, or the whole school
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/quantiles")
+    @ApiOperation(value = "Get mark quantiles across exams of a subject and/or class")
+    public ResponseEntity<?> getMergedQuantiles(@RequestParam(required = false) Long subjectId,
+                                                @RequestParam(required = false) Long classId,
+                                                @RequestParam(defaultValue = "") List<Double> percentiles) {
+        try {
+            MarkQuantilesDTO quantiles = examResultService.getMergedQuantiles(subjectId, classId, percentiles);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Quantiles retrieved successfully", quantiles));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve quantiles: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get exam result statistics
      */
@@ -259,6 +407,70 @@ public class ExamResultController {
         }
     }
 
+    /**
+     * Get the gradebook of a class: marks of every student in every exam held in a date range
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/class/{classId}/gradebook")
+    @ApiOperation(value = "Get the class gradebook matrix")
+    public ResponseEntity<?> getClassGradebook(
+            @PathVariable Long classId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("startDate must not be after endDate"));
+        }
+        try {
+            GradebookDTO gradebook = examResultService.getClassGradebook(classId, startDate, endDate);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Class gradebook retrieved successfully", gradebook));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve class gradebook: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Generate report cards for a whole class over a term
+     * Data is loaded up front so a missing class still gets a 404; the cards themselves are streamed
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/class/{classId}/report-cards")
+    @ApiOperation(value = "Generate report cards for a class as NDJSON or ZIP")
+    public ResponseEntity<?> generateClassReportCards(
+            @PathVariable Long classId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate termStart,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate termEnd,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        boolean zip = "zip".equalsIgnoreCase(format);
+        if (!zip && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Unsupported report card format: " + format + " (use ndjson or zip)"));
+        }
+        if (termStart.isAfter(termEnd)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("termStart must not be after termEnd"));
+        }
+
+        try {
+            ReportCardService.ClassReportCards cards = reportCardService.loadClassReportCards(classId, termStart, termEnd);
+            String fileName = "report-cards-class-" + classId + "-" + termStart + "-" + termEnd
+                    + (zip ? ".zip" : ".ndjson");
+            StreamingResponseBody body = out -> reportCardService.writeClassReportCards(cards, format, out);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .contentType(zip ? new MediaType("application", "zip") : new MediaType("application", "x-ndjson"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .body(body);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to generate report cards: " + e.getMessage()));
+        }
+    }
+
     /**
      * Bulk upload exam results
      */
@@ -273,12 +485,62 @@ public class ExamResultController {
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to upload exam results: " + e.getMessage()));
         }
     }
 
+    /**
+     * Import exam results from a CSV file
+     * Valid rows are saved even when others are rejected; format=csv returns the rejected rows as a file
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @PostMapping(value = "/exam/{examId}/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ApiOperation(value = "Import exam results from CSV")
+    public ResponseEntity<?> importResults(@PathVariable Long examId,
+                                           @RequestParam("file") MultipartFile file,
+                                           @RequestParam(defaultValue = "json") String format) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"json".equalsIgnoreCase(format)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Unsupported report format: " + format + " (use json or csv)"));
+        }
+        try {
+            ExamResultImportDTO importResult;
+            try (InputStream in = file.getInputStream()) {
+                importResult = examResultImportService.importResults(examId, in, file.getOriginalFilename());
+            }
+            if (!csv) {
+                return ResponseEntity.status(HttpStatus.OK)
+                        .body(ApiResponse.success("Imported " + importResult.getImportedRows() + " of "
+                                + importResult.getTotalRows() + " rows", importResult));
+            }
+
+            ByteArrayOutputStream report = new ByteArrayOutputStream();
+            examResultImportService.writeRejectedRows(importResult, report);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .contentType(new MediaType("text", "csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"exam-" + examId + "-rejected-rows.csv\"")
+                    .header("X-Imported-Rows", String.valueOf(importResult.getImportedRows()))
+                    .header("X-Rejected-Rows", String.valueOf(importResult.getRejectedCount()))
+                    .body(report.toByteArray());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to import exam results: " + e.getMessage()));
+        }
+    }
+
     /**
      * Delete exam result
      */
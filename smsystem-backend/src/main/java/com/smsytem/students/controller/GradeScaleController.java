@@ -0,0 +1,115 @@
+package com.smsytem.students.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.smsytem.students.dto.GradeScaleDTO;
+import com.smsytem.students.entity.Exam.ExamType;
+import com.smsytem.students.exception.ApiResponse;
+import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.service.GradeScaleService;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+
+/**
+ * REST Controller for grade scale management
+ * Provides endpoints for the per-year and per-exam-type scales used to grade results
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/grade-scales")
+@CrossOrigin("*")
+@Api(tags = "Grade Scale Management")
+public class GradeScaleController {
+
+    private final GradeScaleService gradeScaleService;
+
+    /**
+     * Get all stored grade scales
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping
+    @ApiOperation(value = "Get all stored grade scales")
+    public ResponseEntity<?> getAllScales() {
+        try {
+            List<GradeScaleDTO> scales = gradeScaleService.getAllScales();
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Grade scales retrieved successfully", scales));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve grade scales: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the scale that applies to an academic year and exam type
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    @GetMapping("/effective")
+    @ApiOperation(value = "Get the grade scale applied to an academic year and exam type")
+    public ResponseEntity<?> getEffectiveScale(@RequestParam(required = false) Integer academicYear,
+                                               @RequestParam(required = false) ExamType examType) {
+        try {
+            GradeScaleDTO scale = gradeScaleService.getEffectiveScale(academicYear, examType);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Grade scale retrieved successfully", scale));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve grade scale: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Create or replace a grade scale
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping
+    @ApiOperation(value = "Create or replace a grade scale")
+    public ResponseEntity<?> saveScale(@RequestBody GradeScaleDTO gradeScaleDTO) {
+        try {
+            GradeScaleDTO savedScale = gradeScaleService.saveScale(gradeScaleDTO);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Grade scale saved successfully", savedScale));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to save grade scale: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Delete a grade scale
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping
+    @ApiOperation(value = "Delete a grade scale")
+    public ResponseEntity<?> deleteScale(@RequestParam(required = false) Integer academicYear,
+                                         @RequestParam(required = false) ExamType examType) {
+        try {
+            gradeScaleService.deleteScale(academicYear, examType);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ApiResponse.success("Grade scale deleted successfully", null));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to delete grade scale: " + e.getMessage()));
+        }
+    }
+}
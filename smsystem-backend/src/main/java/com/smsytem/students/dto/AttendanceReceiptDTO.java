@@ -0,0 +1,33 @@
+package com.smsytem.students.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a queued attendance submission
+ * Tracks whether the submission has been persisted or rejected by the background writer
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceReceiptDTO {
+
+    private String receiptId;
+    private Long classId;
+    private LocalDate attendanceDate;
+    private int rowCount;
+    private ReceiptStatus status;
+    private String message;
+    private Long submittedBy; // User ID of the submitter; only they and admins can read the receipt
+    private LocalDateTime submittedAt;
+    private LocalDateTime processedAt;
+    private BulkAttendanceResultDTO result; // Set once the submission has been written
+
+    public enum ReceiptStatus {
+        QUEUED, PERSISTED, REJECTED
+    }
+}
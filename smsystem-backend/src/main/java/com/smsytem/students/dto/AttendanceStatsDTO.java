@@ -0,0 +1,23 @@
+package com.smsytem.students.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for student attendance statistics
+ * Day counts per status over a date range with the derived attendance percentage
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceStatsDTO {
+
+    private long presentDays;
+    private long absentDays;
+    private long lateDays;
+    private long excusedDays;
+    private long halfDays;
+    private long totalDays;
+    private double attendancePercentage; // Present days over total marked days, rounded to 2 decimals
+}
@@ -0,0 +1,38 @@
+package com.smsytem.students.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for bulk attendance results
+ * Carries the saved rows together with per-row errors for rejected entries
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAttendanceResultDTO {
+
+    private Long classId;
+    private LocalDate attendanceDate;
+    private int requestedCount;
+    private int savedCount;
+    private List<AttendanceDTO> saved = new ArrayList<>();
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Error details for a single rejected row
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int rowIndex; // Position of the row in the submitted list
+        private Long studentId;
+        private String message;
+    }
+}
@@ -0,0 +1,24 @@
+package com.smsytem.students.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one class attendance submission
+ * Carries the marking user explicitly so it can be written outside the request thread
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassAttendanceRequestDTO {
+
+    private Long classId;
+    private LocalDate attendanceDate;
+    private Long markedById; // User ID who submitted the attendance
+    private List<AttendanceDTO> attendanceList = new ArrayList<>();
+}
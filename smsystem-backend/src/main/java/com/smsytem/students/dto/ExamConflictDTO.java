@@ -0,0 +1,29 @@
+package com.smsytem.students.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one scheduling clash between two exams
+ * Positions refer to the submitted schedule; they are null for exams already stored
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamConflictDTO {
+
+    private Integer position;
+    private Long examId;
+    private String examName;
+    private String conflictType; // CLASS or CREATOR
+    private Integer conflictingPosition;
+    private Long conflictingExamId;
+    private String conflictingExamName;
+    private LocalDate examDate;
+    private LocalTime conflictingStartTime;
+    private LocalTime conflictingEndTime;
+}
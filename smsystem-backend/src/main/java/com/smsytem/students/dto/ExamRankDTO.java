@@ -0,0 +1,30 @@
+package com.smsytem.students.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a student's standing in one exam
+ * Ranks are computed over the whole exam and within the student's class
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamRankDTO {
+
+    private Long resultId;
+    private Long studentId;
+    private String studentName;
+    private String studentRoll;
+    private Long classId;
+    private String className;
+    private Double marksObtained;
+    private Double totalMarks;
+    private long rank;
+    private long denseRank;
+    private double percentile; // From PERCENT_RANK: 100 for the top score, 0 for the lowest
+    private long classRank;
+    private long classDenseRank;
+    private double classPercentile;
+}
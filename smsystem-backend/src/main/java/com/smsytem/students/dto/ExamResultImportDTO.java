@@ -0,0 +1,41 @@
+package com.smsytem.students.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the outcome of a CSV exam result import
+ * Used for API responses
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamResultImportDTO {
+
+    private Long examId;
+    private String fileName;
+    private int totalRows;
+    private int importedRows;
+    private int rejectedCount;
+    private List<RejectedRow> rejectedRows = new ArrayList<>();
+
+    /**
+     * A row that was not imported, with its values as they appeared in the file
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RejectedRow {
+        private long lineNumber; // 1-based line in the file, the header being line 1
+        private String studentId;
+        private String marksObtained;
+        private String totalMarks;
+        private String remarks;
+        private String isAbsent;
+        private String message;
+    }
+}
@@ -0,0 +1,23 @@
+package com.smsytem.students.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one keyset page of exam results
+ * Pass nextAfterMarks and nextAfterResultId back to fetch the following page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamResultPageDTO {
+
+    private List<ExamResultDTO> results = new ArrayList<>();
+    private boolean hasMore;
+    private Double nextAfterMarks;
+    private Long nextAfterResultId;
+}
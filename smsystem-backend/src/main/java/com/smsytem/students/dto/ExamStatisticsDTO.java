@@ -0,0 +1,26 @@
+package com.smsytem.students.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the aggregate statistics of one exam's results
+ * Cached per exam and evicted when any of its results change
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamStatisticsDTO {
+
+    private Long examId;
+    private long totalResults;
+    private Map<String, Long> statusCounts; // keyed by result status, e.g. PASS
+    private Map<String, Long> gradeDistribution; // keyed by grade, e.g. A_PLUS
+    private Double average; // null when the exam has no results
+    private Double min;
+    private Double max;
+    private Double standardDeviation; // population standard deviation of marks obtained
+}
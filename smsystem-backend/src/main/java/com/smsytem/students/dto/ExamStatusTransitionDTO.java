@@ -0,0 +1,24 @@
+package com.smsytem.students.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one run of the exam status lifecycle
+ * In a dry run the lists name the exams that would move; nothing is written
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamStatusTransitionDTO {
+
+    private boolean dryRun;
+    private boolean skipped; // Another instance held the lifecycle lock
+    private LocalDateTime asOf;
+    private List<Long> startedExamIds; // SCHEDULED -> IN_PROGRESS
+    private List<Long> completedExamIds; // SCHEDULED or IN_PROGRESS -> COMPLETED
+}
@@ -0,0 +1,24 @@
+package com.smsytem.students.dto;
+
+import java.util.Map;
+
+import com.smsytem.students.entity.Exam.ExamType;
+import com.smsytem.students.entity.ExamResult.Grade;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a grade scale
+ * Used for API requests and responses
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeScaleDTO {
+
+    private Integer academicYear; // null applies to every year
+    private ExamType examType; // null applies to every exam type
+    private Map<Grade, Double> minPercentages; // minimum percentage for each grade in the scale
+}
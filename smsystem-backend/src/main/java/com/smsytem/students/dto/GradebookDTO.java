@@ -0,0 +1,37 @@
+package com.smsytem.students.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a class gradebook
+ * Column-oriented: student arrays index the rows, exam arrays index the columns,
+ * and marks[row][column] is null where the student has no result
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradebookDTO {
+
+    private Long classId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    private long[] studentIds;
+    private String[] studentNames;
+    private String[] studentRolls;
+
+    private long[] examIds;
+    private String[] examNames;
+    private String[] subjectNames;
+    private LocalDate[] examDates;
+    private double[] examTotalMarks;
+
+    private Double[][] marks;
+    private double[] studentTotals; // Row totals
+    private double[] examTotals; // Column totals
+    private double grandTotal;
+}
@@ -0,0 +1,29 @@
+package com.smsytem.students.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the mark distribution of one exam or a group of exams
+ * Values are percentages of total marks, accurate to 0.1 points; all are null when there are no results
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkQuantilesDTO {
+
+    private Long examId; // null for a merged distribution
+    private Long subjectId;
+    private Long classId;
+    private int examCount;
+    private long resultCount;
+    private Double min;
+    private Double firstQuartile;
+    private Double median;
+    private Double thirdQuartile;
+    private Double max;
+    private Map<String, Double> percentiles; // requested percentiles keyed like "p90"
+}
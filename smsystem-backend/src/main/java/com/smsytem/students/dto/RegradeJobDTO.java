@@ -0,0 +1,33 @@
+package com.smsytem.students.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the progress of an exam re-grade
+ * Used for API responses
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegradeJobDTO {
+
+    private String jobId;
+    private Long examId;
+    private RegradeStatus status;
+    private long totalRows; // Known once the job starts
+    private long processedRows;
+    private List<Long> outOfRangeResultIds; // Marks above the row's total; left ungraded
+    private String message;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public enum RegradeStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,30 @@
+package com.smsytem.students.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one student's report card over a term
+ * Used by the class-wide report card export
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportCardDTO {
+
+    private Long studentId;
+    private String studentName;
+    private String studentRoll;
+    private Long classId;
+    private String className;
+    private LocalDate termStart;
+    private LocalDate termEnd;
+    private List<ExamResultDTO> results;
+    private Map<String, Long> overallPerformance; // e.g. passCount, failCount
+    private Double averagePercentage; // null when the student has no results in the term
+}
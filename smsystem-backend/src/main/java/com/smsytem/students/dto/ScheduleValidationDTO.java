@@ -0,0 +1,21 @@
+package com.smsytem.students.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the outcome of validating an exam schedule
+ * Used for API responses
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleValidationDTO {
+
+    private int checkedSlots;
+    private boolean valid;
+    private List<ExamConflictDTO> conflicts;
+}
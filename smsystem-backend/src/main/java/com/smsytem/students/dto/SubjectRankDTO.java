@@ -0,0 +1,25 @@
+package com.smsytem.students.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a student's standing in a subject across all of its exams for a class
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubjectRankDTO {
+
+    private Long studentId;
+    private String studentName;
+    private String studentRoll;
+    private long examCount;
+    private Double marksObtained; // Sum over the subject's exams
+    private Double totalMarks; // Sum over the subject's exams
+    private double percentage;
+    private long rank;
+    private long denseRank;
+    private double percentile;
+}
@@ -11,6 +11,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -28,7 +29,11 @@ import lombok.NoArgsConstructor;
 @Entity
 @Data
 @Table(name = "attendance", 
-       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "attendance_date"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "attendance_date"}),
+       indexes = {
+           @Index(name = "idx_attendance_class_date", columnList = "class_id, attendance_date"),
+           @Index(name = "idx_attendance_student_date_status", columnList = "student_id, attendance_date, status")
+       })
 public class Attendance {
     
     @Id
@@ -39,6 +44,9 @@ public class Attendance {
     @JoinColumn(name = "student_id", nullable = false)
     private Student student;
 
+    @Column(name = "class_id")
+    private Long classId; // Class the student was in when the attendance was recorded
+
     @Column(name = "attendance_date", nullable = false)
     private LocalDate attendanceDate;
 
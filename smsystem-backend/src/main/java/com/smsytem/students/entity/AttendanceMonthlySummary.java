@@ -0,0 +1,56 @@
+package com.smsytem.students.entity;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity representing a per-student, per-month attendance rollup
+ * Maintained in the same transaction as attendance writes so full months
+ * can be counted without scanning raw attendance rows
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Data
+@Table(name = "attendance_monthly_summary",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "class_id", "summary_month"}))
+public class AttendanceMonthlySummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long summaryId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "class_id", nullable = false)
+    private Long classId; // Class the student was in when the attendance was counted
+
+    @Column(name = "summary_month", nullable = false)
+    private LocalDate summaryMonth; // First day of the month
+
+    @Column(name = "present_count", nullable = false)
+    private long presentCount;
+
+    @Column(name = "absent_count", nullable = false)
+    private long absentCount;
+
+    @Column(name = "late_count", nullable = false)
+    private long lateCount;
+
+    @Column(name = "excused_count", nullable = false)
+    private long excusedCount;
+
+    @Column(name = "half_day_count", nullable = false)
+    private long halfDayCount;
+}
@@ -10,11 +10,15 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.persistence.UniqueConstraint;
+
+import com.smsytem.students.grading.GradeScale;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -28,7 +32,8 @@ import lombok.NoArgsConstructor;
 @Entity
 @Data
 @Table(name = "exam_results",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"exam_id", "student_id"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"exam_id", "student_id"}),
+       indexes = @Index(name = "idx_exam_results_exam_marks", columnList = "exam_id, marks_obtained"))
 public class ExamResult {
 
     @Id
@@ -80,37 +85,20 @@ public class ExamResult {
     private LocalDate updatedAt;
 
     /**
-     * Calculate percentage and determine pass/fail status
+     * Calculate percentage, grade and pass/fail status with the given grade scale
      */
-    public void calculateResult() {
+    public void calculateResult(GradeScale gradeScale) {
         if (totalMarks != null && totalMarks > 0) {
-            this.percentage = (marksObtained / totalMarks) * 100;
-            
-            // Determine grade based on percentage
-            if (percentage >= 90) {
-                this.grade = Grade.A_PLUS;
-            } else if (percentage >= 80) {
-                this.grade = Grade.A;
-            } else if (percentage >= 70) {
-                this.grade = Grade.B_PLUS;
-            } else if (percentage >= 60) {
-                this.grade = Grade.B;
-            } else if (percentage >= 50) {
-                this.grade = Grade.C_PLUS;
-            } else if (percentage >= 40) {
-                this.grade = Grade.C;
-            } else if (percentage >= 33) {
-                this.grade = Grade.D;
-            } else {
-                this.grade = Grade.F;
-            }
+            double calculated = marksObtained / totalMarks * 100;
+            this.percentage = calculated;
+            this.grade = gradeScale.gradeFor(calculated);
 
             // Determine result status
-            Double passingPercentage = exam != null && exam.getPassingMarks() != null 
-                ? (exam.getPassingMarks().doubleValue() / exam.getTotalMarks().doubleValue()) * 100 
+            double passingPercentage = exam != null && exam.getPassingMarks() != null
+                ? exam.getPassingMarks() * 100.0 / exam.getTotalMarks()
                 : 33.0;
-            
-            this.resultStatus = percentage >= passingPercentage ? ResultStatus.PASS : ResultStatus.FAIL;
+
+            this.resultStatus = calculated >= passingPercentage ? ResultStatus.PASS : ResultStatus.FAIL;
         }
     }
 
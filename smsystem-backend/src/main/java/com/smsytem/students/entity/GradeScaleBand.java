@@ -0,0 +1,50 @@
+package com.smsytem.students.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import com.smsytem.students.entity.Exam.ExamType;
+import com.smsytem.students.entity.ExamResult.Grade;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity representing one band of a grade scale
+ * A scale is the set of bands sharing an academic year and exam type; a null year or type
+ * means the scale applies to every year or type that has no more specific scale
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Data
+@Table(name = "grade_scale_bands",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"academic_year", "exam_type", "grade"}))
+public class GradeScaleBand {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long bandId;
+
+    @Column(name = "academic_year")
+    private Integer academicYear;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "exam_type")
+    private ExamType examType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "grade", nullable = false)
+    private Grade grade;
+
+    @Column(name = "min_percentage", nullable = false)
+    private Double minPercentage;
+}
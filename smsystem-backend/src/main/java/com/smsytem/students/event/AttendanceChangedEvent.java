@@ -0,0 +1,23 @@
+package com.smsytem.students.event;
+
+import java.time.LocalDate;
+
+import com.smsytem.students.entity.Attendance.AttendanceStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published whenever an attendance row is created, changed or removed
+ * In-memory read models listen to it after the surrounding transaction commits
+ */
+@Getter
+@AllArgsConstructor
+public class AttendanceChangedEvent {
+
+    private final Long studentId;
+    private final Long classId; // Class stored on the row; null for rows written before the column existed
+    private final LocalDate attendanceDate;
+    private final AttendanceStatus previousStatus; // null when the row was created
+    private final AttendanceStatus newStatus; // null when the row was deleted
+}
@@ -0,0 +1,23 @@
+package com.smsytem.students.event;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published whenever exams are created, updated, deleted or change status
+ * Caches derived from the exam schedule are evicted after the surrounding transaction commits.
+ * Bulk changes such as clock-driven status transitions publish one event for the whole batch.
+ */
+@Getter
+@AllArgsConstructor
+public class ExamChangedEvent {
+
+    private final List<Long> examIds;
+
+    public ExamChangedEvent(Long examId) {
+        this(Collections.singletonList(examId));
+    }
+}
@@ -0,0 +1,15 @@
+package com.smsytem.students.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published when an exam changes in a way that affects the grade or status of its results
+ * A re-grade of the exam's results is queued after the surrounding transaction commits
+ */
+@Getter
+@AllArgsConstructor
+public class ExamGradingChangedEvent {
+
+    private final Long examId;
+}
@@ -0,0 +1,32 @@
+package com.smsytem.students.event;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published whenever results of an exam are created, changed or removed
+ * Caches derived from exam results are evicted after the surrounding transaction commits.
+ * The mark changes let in-memory summaries move by the difference instead of re-reading the exam.
+ */
+@Getter
+@AllArgsConstructor
+public class ExamResultsChangedEvent {
+
+    private final Long examId;
+    private final List<MarkChange> markChanges; // Empty when no marks changed; null when the changes are unknown
+
+    /**
+     * Marks of one result before and after the write
+     * Marks are null on a side where the result did not count: not yet written, deleted, or absent.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class MarkChange {
+        private final Double previousMarks;
+        private final Double previousTotal;
+        private final Double newMarks;
+        private final Double newTotal;
+    }
+}
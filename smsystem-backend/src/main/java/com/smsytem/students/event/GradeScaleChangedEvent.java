@@ -0,0 +1,18 @@
+package com.smsytem.students.event;
+
+import com.smsytem.students.entity.Exam.ExamType;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published whenever a grade scale is created, replaced or removed
+ * The in-memory grade scale table reloads after the surrounding transaction commits
+ */
+@Getter
+@AllArgsConstructor
+public class GradeScaleChangedEvent {
+
+    private final Integer academicYear; // null for the scale that applies to every year
+    private final ExamType examType; // null for the scale that applies to every exam type
+}
@@ -0,0 +1,92 @@
+package com.smsytem.students.grading;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.smsytem.students.entity.ExamResult.Grade;
+
+/**
+ * Immutable grade scale backed by sorted primitive arrays
+ * Grading is a binary search over the band thresholds with no boxing, so it is safe to share
+ * between threads and cheap enough to run for every row of a bulk re-grade
+ */
+public final class GradeScale {
+
+    /**
+     * Scale built from Grade.minPercentage, used when no scale has been stored
+     */
+    public static final GradeScale DEFAULT = fromGradeDefaults();
+
+    private final double[] thresholds; // ascending
+    private final Grade[] grades; // grades[i] starts at thresholds[i]
+
+    private GradeScale(double[] thresholds, Grade[] grades) {
+        this.thresholds = thresholds;
+        this.grades = grades;
+    }
+
+    /**
+     * Build a scale from each grade's minimum percentage
+     * Throws IllegalArgumentException when the map is empty or two grades share a threshold
+     */
+    public static GradeScale of(Map<Grade, Double> minPercentages) {
+        if (minPercentages.isEmpty()) {
+            throw new IllegalArgumentException("A grade scale needs at least one band");
+        }
+
+        List<Grade> ordered = new ArrayList<>(minPercentages.size());
+        for (Map.Entry<Grade, Double> band : minPercentages.entrySet()) {
+            if (band.getValue() == null) {
+                throw new IllegalArgumentException("Minimum percentage is required for grade " + band.getKey());
+            }
+            ordered.add(band.getKey());
+        }
+        ordered.sort(Comparator.comparingDouble(minPercentages::get));
+
+        double[] thresholds = new double[ordered.size()];
+        Grade[] grades = new Grade[ordered.size()];
+        for (int i = 0; i < grades.length; i++) {
+            grades[i] = ordered.get(i);
+            thresholds[i] = minPercentages.get(grades[i]);
+            if (i > 0 && thresholds[i] == thresholds[i - 1]) {
+                throw new IllegalArgumentException("Grades " + grades[i - 1] + " and " + grades[i]
+                        + " share the minimum percentage " + thresholds[i]);
+            }
+        }
+        return new GradeScale(thresholds, grades);
+    }
+
+    /**
+     * Grade for a percentage; anything below the lowest band is F
+     */
+    public Grade gradeFor(double percentage) {
+        int index = Arrays.binarySearch(thresholds, percentage);
+        if (index < 0) {
+            index = -index - 2; // band whose threshold is the largest one below the percentage
+        }
+        return index >= 0 ? grades[index] : Grade.F;
+    }
+
+    /**
+     * Bands from the highest grade down, for display
+     */
+    public Map<Grade, Double> toMap() {
+        Map<Grade, Double> bands = new LinkedHashMap<>();
+        for (int i = grades.length - 1; i >= 0; i--) {
+            bands.put(grades[i], thresholds[i]);
+        }
+        return bands;
+    }
+
+    private static GradeScale fromGradeDefaults() {
+        Map<Grade, Double> bands = new LinkedHashMap<>();
+        for (Grade grade : Grade.values()) {
+            bands.put(grade, grade.getMinPercentage());
+        }
+        return of(bands);
+    }
+}
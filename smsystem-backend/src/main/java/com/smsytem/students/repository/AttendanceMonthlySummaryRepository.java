@@ -0,0 +1,42 @@
+package com.smsytem.students.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.smsytem.students.entity.AttendanceMonthlySummary;
+
+/**
+ * Repository interface for AttendanceMonthlySummary entity
+ * Provides rollup sums over whole months for attendance statistics
+ */
+@Repository
+public interface AttendanceMonthlySummaryRepository
+        extends JpaRepository<AttendanceMonthlySummary, Long>, AttendanceMonthlySummaryRepositoryCustom {
+
+    /**
+     * Sum status counts for a student over a range of months
+     * Returns a single row of (present, absent, late, excused, halfDay) sums
+     */
+    @Query("SELECT SUM(s.presentCount), SUM(s.absentCount), SUM(s.lateCount), SUM(s.excusedCount), SUM(s.halfDayCount) " +
+           "FROM AttendanceMonthlySummary s WHERE s.studentId = :studentId " +
+           "AND s.summaryMonth BETWEEN :fromMonth AND :toMonth")
+    List<Object[]> sumByStudentAndMonthRange(@Param("studentId") Long studentId,
+                                            @Param("fromMonth") LocalDate fromMonth,
+                                            @Param("toMonth") LocalDate toMonth);
+
+    /**
+     * Sum status counts for a class over a range of months
+     * Returns a single row of (present, absent, late, excused, halfDay) sums
+     */
+    @Query("SELECT SUM(s.presentCount), SUM(s.absentCount), SUM(s.lateCount), SUM(s.excusedCount), SUM(s.halfDayCount) " +
+           "FROM AttendanceMonthlySummary s WHERE s.classId = :classId " +
+           "AND s.summaryMonth BETWEEN :fromMonth AND :toMonth")
+    List<Object[]> sumByClassAndMonthRange(@Param("classId") Long classId,
+                                          @Param("fromMonth") LocalDate fromMonth,
+                                          @Param("toMonth") LocalDate toMonth);
+}
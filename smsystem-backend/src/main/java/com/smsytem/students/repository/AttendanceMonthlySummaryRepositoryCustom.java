@@ -0,0 +1,30 @@
+package com.smsytem.students.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.smsytem.students.entity.AttendanceMonthlySummary;
+
+/**
+ * Custom repository fragment for AttendanceMonthlySummary
+ * Applies rollup changes with native PostgreSQL upserts
+ */
+public interface AttendanceMonthlySummaryRepositoryCustom {
+
+    /**
+     * Add signed increments to the rollup buckets as one JDBC batch
+     * Each element carries the count changes for one (student, class, month) bucket
+     */
+    void applyDeltas(List<AttendanceMonthlySummary> deltas);
+
+    /**
+     * Recompute every rollup bucket from the raw attendance table
+     */
+    int rebuildAll();
+
+    /**
+     * Recompute one student's buckets for one month from the raw attendance table
+     * Used when a concurrent write makes the replaced status unknown
+     */
+    void rebuildStudentMonth(Long studentId, LocalDate summaryMonth);
+}
@@ -0,0 +1,104 @@
+package com.smsytem.students.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.smsytem.students.entity.AttendanceMonthlySummary;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * JDBC implementation of the custom AttendanceMonthlySummary repository fragment
+ * Deltas are added in place by the upsert, so concurrent writers to one bucket add up instead of
+ * overwriting each other's counts.
+ */
+@AllArgsConstructor
+public class AttendanceMonthlySummaryRepositoryCustomImpl implements AttendanceMonthlySummaryRepositoryCustom {
+
+    private static final String APPLY_DELTA_SQL =
+            "INSERT INTO attendance_monthly_summary (student_id, class_id, summary_month, present_count, " +
+            "absent_count, late_count, excused_count, half_day_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (student_id, class_id, summary_month) DO UPDATE SET " +
+            "present_count = attendance_monthly_summary.present_count + EXCLUDED.present_count, " +
+            "absent_count = attendance_monthly_summary.absent_count + EXCLUDED.absent_count, " +
+            "late_count = attendance_monthly_summary.late_count + EXCLUDED.late_count, " +
+            "excused_count = attendance_monthly_summary.excused_count + EXCLUDED.excused_count, " +
+            "half_day_count = attendance_monthly_summary.half_day_count + EXCLUDED.half_day_count";
+
+    private static final String REBUILD_SELECT =
+            "SELECT a.student_id, a.class_id, " +
+            "CAST(date_trunc('month', a.attendance_date) AS date), " +
+            "COUNT(*) FILTER (WHERE a.status = 'PRESENT'), " +
+            "COUNT(*) FILTER (WHERE a.status = 'ABSENT'), " +
+            "COUNT(*) FILTER (WHERE a.status = 'LATE'), " +
+            "COUNT(*) FILTER (WHERE a.status = 'EXCUSED'), " +
+            "COUNT(*) FILTER (WHERE a.status = 'HALF_DAY') " +
+            "FROM attendance a ";
+
+    private static final String INSERT_SUMMARY =
+            "INSERT INTO attendance_monthly_summary (student_id, class_id, summary_month, present_count, " +
+            "absent_count, late_count, excused_count, half_day_count) ";
+
+    private static final String OVERWRITE_ON_CONFLICT =
+            "ON CONFLICT (student_id, class_id, summary_month) DO UPDATE SET " +
+            "present_count = EXCLUDED.present_count, absent_count = EXCLUDED.absent_count, " +
+            "late_count = EXCLUDED.late_count, excused_count = EXCLUDED.excused_count, " +
+            "half_day_count = EXCLUDED.half_day_count";
+
+    private static final String REBUILD_SQL = INSERT_SUMMARY + REBUILD_SELECT +
+            "GROUP BY 1, 2, 3 " + OVERWRITE_ON_CONFLICT;
+
+    private static final String DELETE_STUDENT_MONTH_SQL =
+            "DELETE FROM attendance_monthly_summary WHERE student_id = ? AND summary_month = ?";
+
+    private static final String REBUILD_STUDENT_MONTH_SQL = INSERT_SUMMARY + REBUILD_SELECT +
+            "WHERE a.student_id = ? AND a.attendance_date >= ? AND a.attendance_date < ? " +
+            "GROUP BY 1, 2, 3 " + OVERWRITE_ON_CONFLICT;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void applyDeltas(List<AttendanceMonthlySummary> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AttendanceMonthlySummary delta = deltas.get(i);
+                ps.setLong(1, delta.getStudentId());
+                ps.setLong(2, delta.getClassId());
+                ps.setDate(3, Date.valueOf(delta.getSummaryMonth()));
+                ps.setLong(4, delta.getPresentCount());
+                ps.setLong(5, delta.getAbsentCount());
+                ps.setLong(6, delta.getLateCount());
+                ps.setLong(7, delta.getExcusedCount());
+                ps.setLong(8, delta.getHalfDayCount());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deltas.size();
+            }
+        });
+    }
+
+    @Override
+    public int rebuildAll() {
+        return jdbcTemplate.update(REBUILD_SQL);
+    }
+
+    @Override
+    public void rebuildStudentMonth(Long studentId, LocalDate summaryMonth) {
+        jdbcTemplate.update(DELETE_STUDENT_MONTH_SQL, studentId, Date.valueOf(summaryMonth));
+        jdbcTemplate.update(REBUILD_STUDENT_MONTH_SQL, studentId,
+                Date.valueOf(summaryMonth), Date.valueOf(summaryMonth.plusMonths(1)));
+    }
+}
@@ -1,14 +1,22 @@
 package com.smsytem.students.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.smsytem.students.dto.AttendanceDTO;
 import com.smsytem.students.entity.Attendance;
 import com.smsytem.students.entity.Attendance.AttendanceStatus;
 
@@ -17,7 +25,28 @@ import com.smsytem.students.entity.Attendance.AttendanceStatus;
  * Provides custom query methods for attendance management
  */
 @Repository
-public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
+public interface AttendanceRepository extends JpaRepository<Attendance, Long>, AttendanceRepositoryCustom {
+
+    /**
+     * Select list building an AttendanceDTO directly from the joined columns
+     */
+    String DTO_SELECT = "SELECT new com.smsytem.students.dto.AttendanceDTO(a.attendanceId, s.studentID, " +
+            "CONCAT(s.firstName, ' ', s.lastName), c.className, a.attendanceDate, a.status, a.checkInTime, " +
+            "a.checkOutTime, a.remarks, m.id, m.name, a.createdAt, a.updatedAt) " +
+            "FROM Attendance a JOIN a.student s LEFT JOIN s.studentClass c LEFT JOIN a.markedBy m ";
+
+    /**
+     * JDBC fetch size for streamed queries
+     */
+    String STREAM_FETCH_SIZE = "1000";
+
+    /**
+     * Find one attendance record and lock its row until the transaction ends
+     * Overlapping updates of the same record then see each other's status instead of the same old one
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Attendance a WHERE a.attendanceId = :attendanceId")
+    Optional<Attendance> findByIdForUpdate(@Param("attendanceId") Long attendanceId);
 
     /**
      * Find attendance record for a specific student on a specific date
@@ -47,27 +76,40 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     /**
      * Find attendance records for a class on a specific date
      */
-    @Query("SELECT a FROM Attendance a WHERE a.student.studentClass.classID = :classId " +
+    @Query("SELECT a FROM Attendance a WHERE a.classId = :classId " +
            "AND a.attendanceDate = :attendanceDate " +
            "ORDER BY a.student.roll")
     List<Attendance> findByClassAndDate(@Param("classId") Long classId, 
                                        @Param("attendanceDate") LocalDate attendanceDate);
 
     /**
-     * Count attendance by status for a student in date range
+     * Get attendance statistics for a student, one row per status
      */
-    @Query("SELECT COUNT(a) FROM Attendance a WHERE a.student.studentID = :studentId " +
+    @Query("SELECT a.status, COUNT(a) FROM Attendance a WHERE a.student.studentID = :studentId " +
            "AND a.attendanceDate BETWEEN :startDate AND :endDate " +
-           "AND a.status = :status")
-    Long countByStudentAndStatusInDateRange(@Param("studentId") Long studentId,
-                                          @Param("startDate") LocalDate startDate,
-                                          @Param("endDate") LocalDate endDate,
-                                          @Param("status") AttendanceStatus status);
+           "GROUP BY a.status")
+    List<Object[]> getAttendanceStatsByStudent(@Param("studentId") Long studentId,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+
+    /**
+     * Get attendance statistics for a student over two date ranges, one row per status
+     * Used for the partial months at the edges of a rollup-backed range
+     */
+    @Query("SELECT a.status, COUNT(a) FROM Attendance a WHERE a.student.studentID = :studentId " +
+           "AND (a.attendanceDate BETWEEN :firstStart AND :firstEnd " +
+           "OR a.attendanceDate BETWEEN :secondStart AND :secondEnd) " +
+           "GROUP BY a.status")
+    List<Object[]> getAttendanceStatsByStudentInRanges(@Param("studentId") Long studentId,
+                                                     @Param("firstStart") LocalDate firstStart,
+                                                     @Param("firstEnd") LocalDate firstEnd,
+                                                     @Param("secondStart") LocalDate secondStart,
+                                                     @Param("secondEnd") LocalDate secondEnd);
 
     /**
      * Get attendance statistics for a class
      */
-    @Query("SELECT a.status, COUNT(a) FROM Attendance a WHERE a.student.studentClass.classID = :classId " +
+    @Query("SELECT a.status, COUNT(a) FROM Attendance a WHERE a.classId = :classId " +
            "AND a.attendanceDate BETWEEN :startDate AND :endDate " +
            "GROUP BY a.status")
     List<Object[]> getAttendanceStatsByClass(@Param("classId") Long classId,
@@ -75,7 +117,92 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
                                            @Param("endDate") LocalDate endDate);
 
     /**
-     * Check if attendance exists for student on date
+     * Get attendance statistics for a class over two date ranges, one row per status
+     * Used for the partial months at the edges of a rollup-backed range
+     */
+    @Query("SELECT a.status, COUNT(a) FROM Attendance a WHERE a.classId = :classId " +
+           "AND (a.attendanceDate BETWEEN :firstStart AND :firstEnd " +
+           "OR a.attendanceDate BETWEEN :secondStart AND :secondEnd) " +
+           "GROUP BY a.status")
+    List<Object[]> getAttendanceStatsByClassInRanges(@Param("classId") Long classId,
+                                                   @Param("firstStart") LocalDate firstStart,
+                                                   @Param("firstEnd") LocalDate firstEnd,
+                                                   @Param("secondStart") LocalDate secondStart,
+                                                   @Param("secondEnd") LocalDate secondEnd);
+
+    /**
+     * Count consecutive ABSENT records ending at a date
+     * Only absences after the student's latest non-absent record are counted
+     */
+    @Query("SELECT COUNT(a) FROM Attendance a WHERE a.student.studentID = :studentId " +
+           "AND a.attendanceDate <= :asOf AND a.status = :absent " +
+           "AND a.attendanceDate > ALL (SELECT b.attendanceDate FROM Attendance b " +
+           "WHERE b.student.studentID = :studentId AND b.attendanceDate <= :asOf AND b.status <> :absent)")
+    Long countConsecutiveAbsences(@Param("studentId") Long studentId,
+                                  @Param("asOf") LocalDate asOf,
+                                  @Param("absent") AttendanceStatus absent);
+
+    /**
+     * Find one attendance record as a DTO
+     */
+    @Query(DTO_SELECT + "WHERE a.attendanceId = :attendanceId")
+    Optional<AttendanceDTO> findDtoById(@Param("attendanceId") Long attendanceId);
+
+    /**
+     * Find all attendance records for a student as DTOs, newest first
+     */
+    @Query(DTO_SELECT + "WHERE s.studentID = :studentId ORDER BY a.attendanceDate DESC")
+    List<AttendanceDTO> findDtosByStudent(@Param("studentId") Long studentId);
+
+    /**
+     * Find attendance records for a student within date range as DTOs, newest first
+     */
+    @Query(DTO_SELECT + "WHERE s.studentID = :studentId " +
+           "AND a.attendanceDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY a.attendanceDate DESC")
+    List<AttendanceDTO> findDtosByStudentAndDateRange(@Param("studentId") Long studentId,
+                                                      @Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate);
+
+    /**
+     * Find all attendance records for a specific date as DTOs
+     */
+    @Query(DTO_SELECT + "WHERE a.attendanceDate = :attendanceDate ORDER BY s.studentID")
+    List<AttendanceDTO> findDtosByDate(@Param("attendanceDate") LocalDate attendanceDate);
+
+    /**
+     * Find attendance records for a class on a specific date as DTOs
+     */
+    @Query(DTO_SELECT + "WHERE a.classId = :classId AND a.attendanceDate = :attendanceDate " +
+           "ORDER BY s.roll")
+    List<AttendanceDTO> findDtosByClassAndDate(@Param("classId") Long classId,
+                                               @Param("attendanceDate") LocalDate attendanceDate);
+
+    /**
+     * Find attendance records for the given students on a date as DTOs
+     */
+    @Query(DTO_SELECT + "WHERE s.studentID IN :studentIds AND a.attendanceDate = :attendanceDate " +
+           "ORDER BY s.roll")
+    List<AttendanceDTO> findDtosByStudentIdsAndDate(@Param("studentIds") Collection<Long> studentIds,
+                                                    @Param("attendanceDate") LocalDate attendanceDate);
+
+    /**
+     * Stream attendance in a date range for export, ordered by date and roll
+     * Rows arrive in fetch-size pages, so the whole range is never held in memory
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(DTO_SELECT + "WHERE a.attendanceDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY a.attendanceDate, s.roll")
+    Stream<AttendanceDTO> streamByDateRange(@Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Stream a class's attendance in a date range for export, ordered by date and roll
      */
-    boolean existsByStudentStudentIDAndAttendanceDate(Long studentId, LocalDate attendanceDate);
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(DTO_SELECT + "WHERE a.classId = :classId AND a.attendanceDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY a.attendanceDate, s.roll")
+    Stream<AttendanceDTO> streamByClassAndDateRange(@Param("classId") Long classId,
+                                                    @Param("startDate") LocalDate startDate,
+                                                    @Param("endDate") LocalDate endDate);
 }
@@ -0,0 +1,49 @@
+package com.smsytem.students.repository;
+
+import java.util.List;
+
+import com.smsytem.students.entity.Attendance;
+import com.smsytem.students.entity.Attendance.AttendanceStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Custom repository fragment for Attendance
+ * Holds JDBC-level operations that Spring Data JPA cannot express efficiently
+ */
+public interface AttendanceRepositoryCustom {
+
+    /**
+     * Insert attendance rows, skipping any (student, date) that already exists
+     * Uses INSERT ... ON CONFLICT DO NOTHING so duplicates cost no extra round trip;
+     * only rows that were actually inserted are returned
+     */
+    List<WriteResult> insertIfAbsent(List<Attendance> attendanceList);
+
+    /**
+     * Insert or overwrite attendance rows keyed by (student, date)
+     * Uses INSERT ... ON CONFLICT DO UPDATE, so repeating the same call is safe;
+     * every row is returned together with the status it replaced
+     */
+    List<WriteResult> upsert(List<Attendance> attendanceList);
+
+    /**
+     * Fill in class_id on rows written before the column existed
+     * Uses the student's current class, which is the best information available for old rows
+     */
+    int backfillClassIds();
+
+    /**
+     * Outcome of writing one attendance row
+     */
+    @Getter
+    @AllArgsConstructor
+    class WriteResult {
+        private final Long studentId;
+        private final Long attendanceId;
+        private final Long classId; // Class stored on the row, kept from the first write
+        private final boolean inserted;
+        private final AttendanceStatus previousStatus; // null for inserted rows
+    }
+}
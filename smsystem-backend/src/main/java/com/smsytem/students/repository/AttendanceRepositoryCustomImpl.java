@@ -0,0 +1,124 @@
+package com.smsytem.students.repository;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.smsytem.students.entity.Attendance;
+import com.smsytem.students.entity.Attendance.AttendanceStatus;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * JDBC implementation of the custom Attendance repository fragment
+ * Each chunk is one multi-row statement whose CTE captures the status a row held before the write,
+ * so callers can move the monthly rollups without reading the rows back.
+ */
+@AllArgsConstructor
+public class AttendanceRepositoryCustomImpl implements AttendanceRepositoryCustom {
+
+    private static final String VALUES_ROW =
+            "(CAST(? AS bigint), CAST(? AS bigint), CAST(? AS date), CAST(? AS varchar), CAST(? AS time), " +
+            "CAST(? AS time), CAST(? AS varchar), CAST(? AS bigint), CAST(? AS date), CAST(? AS date))";
+
+    private static final String INPUT_CTE =
+            "WITH input (student_id, class_id, attendance_date, status, check_in_time, check_out_time, remarks, " +
+            "marked_by, created_at, updated_at) AS (VALUES %s), " +
+            "previous AS (SELECT a.student_id, a.attendance_date, a.status FROM attendance a " +
+            "JOIN input i ON a.student_id = i.student_id AND a.attendance_date = i.attendance_date) " +
+            "INSERT INTO attendance (student_id, class_id, attendance_date, status, check_in_time, check_out_time, " +
+            "remarks, marked_by, created_at, updated_at) SELECT * FROM input ";
+
+    private static final String RETURNING =
+            "RETURNING attendance.student_id, attendance.attendance_id, attendance.class_id, " +
+            "(attendance.xmax = 0) AS inserted, " +
+            "(SELECT p.status FROM previous p WHERE p.student_id = attendance.student_id " +
+            "AND p.attendance_date = attendance.attendance_date) AS previous_status";
+
+    private static final String INSERT_IF_ABSENT_SQL = INPUT_CTE +
+            "ON CONFLICT (student_id, attendance_date) DO NOTHING " + RETURNING;
+
+    private static final String UPSERT_SQL = INPUT_CTE +
+            "ON CONFLICT (student_id, attendance_date) DO UPDATE SET status = EXCLUDED.status, " +
+            "check_in_time = EXCLUDED.check_in_time, check_out_time = EXCLUDED.check_out_time, " +
+            "remarks = EXCLUDED.remarks, marked_by = EXCLUDED.marked_by, updated_at = EXCLUDED.updated_at " +
+            RETURNING;
+
+    private static final String BACKFILL_CLASS_IDS_SQL =
+            "UPDATE attendance a SET class_id = COALESCE(s.student_class, s.class_id) " +
+            "FROM students s WHERE s.studentid = a.student_id AND a.class_id IS NULL";
+
+    private static final RowMapper<WriteResult> WRITE_RESULT_MAPPER = (rs, rowNum) -> {
+        String previousStatus = rs.getString("previous_status");
+        return new WriteResult(
+                rs.getLong("student_id"),
+                rs.getLong("attendance_id"),
+                rs.getObject("class_id", Long.class),
+                rs.getBoolean("inserted"),
+                previousStatus != null ? AttendanceStatus.valueOf(previousStatus) : null);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<WriteResult> insertIfAbsent(List<Attendance> attendanceList) {
+        return write(INSERT_IF_ABSENT_SQL, attendanceList);
+    }
+
+    @Override
+    public List<WriteResult> upsert(List<Attendance> attendanceList) {
+        return write(UPSERT_SQL, attendanceList);
+    }
+
+    @Override
+    public int backfillClassIds() {
+        return jdbcTemplate.update(BACKFILL_CLASS_IDS_SQL);
+    }
+
+    /**
+     * Write rows with one multi-row statement per chunk
+     */
+    private List<WriteResult> write(String sqlTemplate, List<Attendance> attendanceList) {
+        if (attendanceList.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<WriteResult> results = new ArrayList<>(attendanceList.size());
+        for (int from = 0; from < attendanceList.size(); from += JdbcBatching.ROWS_PER_STATEMENT) {
+            List<Attendance> chunk = attendanceList.subList(from,
+                    Math.min(from + JdbcBatching.ROWS_PER_STATEMENT, attendanceList.size()));
+            String sql = String.format(sqlTemplate, String.join(", ", Collections.nCopies(chunk.size(), VALUES_ROW)));
+
+            List<Object> params = new ArrayList<>(chunk.size() * 10);
+            for (Attendance attendance : chunk) {
+                params.add(attendance.getStudent().getStudentID());
+                params.add(attendance.getClassId());
+                params.add(toDate(attendance.getAttendanceDate()));
+                params.add(attendance.getStatus().name());
+                params.add(toTime(attendance.getCheckInTime()));
+                params.add(toTime(attendance.getCheckOutTime()));
+                params.add(attendance.getRemarks());
+                params.add(attendance.getMarkedBy() != null ? attendance.getMarkedBy().getId() : null);
+                params.add(toDate(attendance.getCreatedAt()));
+                params.add(toDate(attendance.getUpdatedAt()));
+            }
+            results.addAll(jdbcTemplate.query(sql, WRITE_RESULT_MAPPER, params.toArray()));
+        }
+        return results;
+    }
+
+    private static Date toDate(LocalDate value) {
+        return value != null ? Date.valueOf(value) : null;
+    }
+
+    private static Time toTime(LocalTime value) {
+        return value != null ? Time.valueOf(value) : null;
+    }
+}
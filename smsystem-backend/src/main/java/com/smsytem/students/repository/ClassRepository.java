@@ -1,5 +1,6 @@
 package com.smsytem.students.repository;
 
+import java.util.Optional;
 import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,4 +13,7 @@ import com.smsytem.students.entity.ClassOrSection;
 public interface ClassRepository extends JpaRepository<ClassOrSection, Long> {
     @Query("SELECT s.subjectID FROM ClassOrSection c JOIN c.subjects s WHERE c.classID = :classID")
     Set<Long> findSubjectIDsByClassID(@Param("classID") Long classID);
+
+    @Query("SELECT c.className FROM ClassOrSection c WHERE c.classID = :classID")
+    Optional<String> findClassNameByClassID(@Param("classID") Long classID);
 }
@@ -2,12 +2,16 @@ package com.smsytem.students.repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.smsytem.students.dto.ExamDTO;
 import com.smsytem.students.entity.Exam;
 import com.smsytem.students.entity.Exam.ExamStatus;
 import com.smsytem.students.entity.Exam.ExamType;
@@ -20,66 +24,136 @@ import com.smsytem.students.entity.Exam.ExamType;
 public interface ExamRepository extends JpaRepository<Exam, Long> {
 
     /**
-     * Find exams by class ID
+     * Projection straight into ExamDTO, joining subject, class and creator in the same statement
+     * List endpoints use it so a page of exams is one query instead of one plus three per exam
      */
-    List<Exam> findByExamClassClassIDOrderByExamDateAsc(Long classId);
+    String DTO_SELECT = "SELECT new com.smsytem.students.dto.ExamDTO(e.examId, e.examName, e.description, " +
+            "sub.subjectID, sub.subjectName, c.classID, c.className, e.examDate, e.startTime, e.endTime, " +
+            "e.durationMinutes, e.totalMarks, e.passingMarks, e.examType, e.status, u.id, u.name, " +
+            "e.instructions, e.createdAt, e.updatedAt) " +
+            "FROM Exam e JOIN e.subject sub JOIN e.examClass c LEFT JOIN e.createdBy u ";
 
     /**
-     * Find exams by subject ID
+     * Optional filters shared by the paged search and its count query; a null filter matches every exam
      */
-    List<Exam> findBySubjectSubjectIDOrderByExamDateAsc(Long subjectId);
+    String SEARCH_FILTER = "WHERE (:classId IS NULL OR e.examClass.classID = :classId) " +
+            "AND (:subjectId IS NULL OR e.subject.subjectID = :subjectId) " +
+            "AND (:status IS NULL OR e.status = :status) " +
+            "AND (:examType IS NULL OR e.examType = :examType) " +
+            "AND (:startDate IS NULL OR e.examDate >= :startDate) " +
+            "AND (:endDate IS NULL OR e.examDate <= :endDate) ";
 
     /**
-     * Find exams by class and subject
+     * Find an exam as a DTO
      */
-    @Query("SELECT e FROM Exam e WHERE e.examClass.classID = :classId AND e.subject.subjectID = :subjectId ORDER BY e.examDate ASC")
-    List<Exam> findByClassAndSubject(@Param("classId") Long classId, @Param("subjectId") Long subjectId);
+    @Query(DTO_SELECT + "WHERE e.examId = :examId")
+    Optional<ExamDTO> findDtoById(@Param("examId") Long examId);
 
     /**
-     * Find exams by date range
+     * Find all exams as DTOs in date order
      */
-    @Query("SELECT e FROM Exam e WHERE e.examDate BETWEEN :startDate AND :endDate ORDER BY e.examDate ASC")
-    List<Exam> findByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    @Query(DTO_SELECT + "ORDER BY e.examDate ASC, e.startTime ASC")
+    List<ExamDTO> findAllDtos();
 
     /**
-     * Find exams by status
+     * Find exams by class as DTOs
      */
-    List<Exam> findByStatusOrderByExamDateAsc(ExamStatus status);
+    @Query(DTO_SELECT + "WHERE c.classID = :classId ORDER BY e.examDate ASC, e.startTime ASC")
+    List<ExamDTO> findDtosByClass(@Param("classId") Long classId);
 
     /**
-     * Find exams by type
+     * Find exams by subject as DTOs
      */
-    List<Exam> findByExamTypeOrderByExamDateAsc(ExamType examType);
+    @Query(DTO_SELECT + "WHERE sub.subjectID = :subjectId ORDER BY e.examDate ASC, e.startTime ASC")
+    List<ExamDTO> findDtosBySubject(@Param("subjectId") Long subjectId);
 
     /**
-     * Find upcoming exams for a class
+     * Find the IDs of exams of a subject and/or class; a null filter matches every exam
      */
-    @Query("SELECT e FROM Exam e WHERE e.examClass.classID = :classId AND e.examDate >= :currentDate ORDER BY e.examDate ASC")
-    List<Exam> findUpcomingExamsByClass(@Param("classId") Long classId, @Param("currentDate") LocalDate currentDate);
+    @Query("SELECT e.examId FROM Exam e " +
+           "WHERE (:subjectId IS NULL OR e.subject.subjectID = :subjectId) " +
+           "AND (:classId IS NULL OR e.examClass.classID = :classId)")
+    List<Long> findExamIds(@Param("subjectId") Long subjectId, @Param("classId") Long classId);
 
     /**
-     * Find exams scheduled for today
+     * Find exams by class and subject as DTOs
      */
-    @Query("SELECT e FROM Exam e WHERE e.examDate = :today ORDER BY e.startTime ASC")
-    List<Exam> findTodaysExams(@Param("today") LocalDate today);
+    @Query(DTO_SELECT + "WHERE c.classID = :classId AND sub.subjectID = :subjectId " +
+           "ORDER BY e.examDate ASC, e.startTime ASC")
+    List<ExamDTO> findDtosByClassAndSubject(@Param("classId") Long classId, @Param("subjectId") Long subjectId);
 
     /**
-     * Find exams created by a specific user
+     * Find exams by date range as DTOs
      */
-    List<Exam> findByCreatedByIdOrderByExamDateDesc(Long createdBy);
+    @Query(DTO_SELECT + "WHERE e.examDate BETWEEN :startDate AND :endDate ORDER BY e.examDate ASC, e.startTime ASC")
+    List<ExamDTO> findDtosByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
     /**
-     * Find exams by class and date range
+     * Find exams by status as DTOs
      */
-    @Query("SELECT e FROM Exam e WHERE e.examClass.classID = :classId AND e.examDate BETWEEN :startDate AND :endDate ORDER BY e.examDate ASC")
-    List<Exam> findByClassAndDateRange(@Param("classId") Long classId, 
-                                     @Param("startDate") LocalDate startDate,
-                                     @Param("endDate") LocalDate endDate);
+    @Query(DTO_SELECT + "WHERE e.status = :status ORDER BY e.examDate ASC, e.startTime ASC")
+    List<ExamDTO> findDtosByStatus(@Param("status") ExamStatus status);
 
     /**
-     * Count exams by status
+     * Find exams by type as DTOs
      */
-    Long countByStatus(ExamStatus status);
+    @Query(DTO_SELECT + "WHERE e.examType = :examType ORDER BY e.examDate ASC, e.startTime ASC")
+    List<ExamDTO> findDtosByType(@Param("examType") ExamType examType);
+
+    /**
+     * Find upcoming exams for a class as DTOs
+     */
+    @Query(DTO_SELECT + "WHERE c.classID = :classId AND e.examDate >= :currentDate " +
+           "ORDER BY e.examDate ASC, e.startTime ASC")
+    List<ExamDTO> findUpcomingDtosByClass(@Param("classId") Long classId, @Param("currentDate") LocalDate currentDate);
+
+    /**
+     * Find exams scheduled for a day as DTOs
+     */
+    @Query(DTO_SELECT + "WHERE e.examDate = :today ORDER BY e.startTime ASC")
+    List<ExamDTO> findDtosByDate(@Param("today") LocalDate today);
+
+    /**
+     * Find exams created by a specific user as DTOs, newest first
+     */
+    @Query(DTO_SELECT + "WHERE u.id = :createdBy ORDER BY e.examDate DESC, e.startTime DESC")
+    List<ExamDTO> findDtosByCreator(@Param("createdBy") Long createdBy);
+
+    /**
+     * Find exams by class and date range as DTOs, e.g. a class's term calendar
+     */
+    @Query(DTO_SELECT + "WHERE c.classID = :classId AND e.examDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY e.examDate ASC, e.startTime ASC")
+    List<ExamDTO> findDtosByClassAndDateRange(@Param("classId") Long classId,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
+    /**
+     * Search exams as DTOs one page at a time
+     * Sorting comes from the query itself; the Pageable only supplies offset and size.
+     */
+    @Query(value = DTO_SELECT + SEARCH_FILTER + "ORDER BY e.examDate ASC, e.startTime ASC, e.examId ASC",
+           countQuery = "SELECT COUNT(e) FROM Exam e " + SEARCH_FILTER)
+    Page<ExamDTO> searchDtos(@Param("classId") Long classId,
+                             @Param("subjectId") Long subjectId,
+                             @Param("status") ExamStatus status,
+                             @Param("examType") ExamType examType,
+                             @Param("startDate") LocalDate startDate,
+                             @Param("endDate") LocalDate endDate,
+                             Pageable pageable);
+
+    /**
+     * Count exams by status, by type and by month in one pass using grouping sets
+     * The last three columns are GROUPING() flags telling which set a row belongs to.
+     * Columns: status, exam type, month (YYYY-MM), count, status grouped, type grouped, month grouped
+     */
+    @Query(value = "SELECT e.status, e.exam_type, TO_CHAR(e.exam_date, 'YYYY-MM'), COUNT(*), " +
+           "GROUPING(e.status), GROUPING(e.exam_type), GROUPING(TO_CHAR(e.exam_date, 'YYYY-MM')) " +
+           "FROM exams e " +
+           "GROUP BY GROUPING SETS ((e.status), (e.exam_type), (TO_CHAR(e.exam_date, 'YYYY-MM')), ()) " +
+           "ORDER BY 3, 1, 2",
+           nativeQuery = true)
+    List<Object[]> getExamOverviewCounts();
 
     /**
      * Check if exam exists for class, subject and date
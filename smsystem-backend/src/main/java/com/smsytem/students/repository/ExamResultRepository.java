@@ -1,13 +1,19 @@
 package com.smsytem.students.repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.smsytem.students.dto.ExamResultDTO;
 import com.smsytem.students.entity.ExamResult;
 import com.smsytem.students.entity.ExamResult.Grade;
 import com.smsytem.students.entity.ExamResult.ResultStatus;
@@ -17,7 +23,13 @@ import com.smsytem.students.entity.ExamResult.ResultStatus;
  * Provides custom query methods for exam result management
  */
 @Repository
-public interface ExamResultRepository extends JpaRepository<ExamResult, Long> {
+public interface ExamResultRepository extends JpaRepository<ExamResult, Long>, ExamResultRepositoryCustom {
+
+    /**
+     * Select clause loading a result with everything its DTO needs in the same query
+     */
+    String FETCH_FOR_DTO = "SELECT er FROM ExamResult er JOIN FETCH er.exam e JOIN FETCH e.subject " +
+            "JOIN FETCH er.student s LEFT JOIN FETCH s.studentClass LEFT JOIN FETCH er.evaluatedBy ";
 
     /**
      * Find exam result by exam and student
@@ -50,29 +62,13 @@ public interface ExamResultRepository extends JpaRepository<ExamResult, Long> {
            "ORDER BY er.marksObtained DESC")
     List<ExamResult> findByClassAndExam(@Param("classId") Long classId, @Param("examId") Long examId);
 
-    /**
-     * Get class-wise results statistics
-     */
-    @Query("SELECT er.resultStatus, COUNT(er) FROM ExamResult er " +
-           "WHERE er.exam.examId = :examId " +
-           "GROUP BY er.resultStatus")
-    List<Object[]> getResultStatsByExam(@Param("examId") Long examId);
-
-    /**
-     * Get grade distribution for an exam
-     */
-    @Query("SELECT er.grade, COUNT(er) FROM ExamResult er " +
-           "WHERE er.exam.examId = :examId " +
-           "GROUP BY er.grade " +
-           "ORDER BY er.grade ASC")
-    List<Object[]> getGradeDistributionByExam(@Param("examId") Long examId);
-
     /**
      * Find top performers in an exam
+     * The page size becomes a LIMIT, so only the requested rows are read
      */
-    @Query("SELECT er FROM ExamResult er WHERE er.exam.examId = :examId " +
-           "ORDER BY er.marksObtained DESC")
-    List<ExamResult> findTopPerformersByExam(@Param("examId") Long examId);
+    @Query(FETCH_FOR_DTO + "WHERE e.examId = :examId " +
+           "ORDER BY er.marksObtained DESC, er.resultId ASC")
+    List<ExamResult> findTopPerformersByExam(@Param("examId") Long examId, Pageable pageable);
 
     /**
      * Get student's average marks for a subject
@@ -82,12 +78,6 @@ public interface ExamResultRepository extends JpaRepository<ExamResult, Long> {
            "AND er.exam.subject.subjectID = :subjectId")
     Double getStudentAverageBySubject(@Param("studentId") Long studentId, @Param("subjectId") Long subjectId);
 
-    /**
-     * Get class average for an exam
-     */
-    @Query("SELECT AVG(er.marksObtained) FROM ExamResult er WHERE er.exam.examId = :examId")
-    Double getClassAverageByExam(@Param("examId") Long examId);
-
     /**
      * Count results by grade
      */
@@ -101,11 +91,81 @@ public interface ExamResultRepository extends JpaRepository<ExamResult, Long> {
     /**
      * Find students who failed in an exam
      */
-    @Query("SELECT er FROM ExamResult er WHERE er.exam.examId = :examId " +
+    @Query(FETCH_FOR_DTO + "WHERE e.examId = :examId " +
            "AND er.resultStatus = 'FAIL' " +
-           "ORDER BY er.marksObtained ASC")
+           "ORDER BY er.marksObtained ASC, er.resultId ASC")
     List<ExamResult> findFailedStudentsByExam(@Param("examId") Long examId);
 
+    /**
+     * Find the first page of students who failed in an exam, lowest marks first
+     */
+    @Query(FETCH_FOR_DTO + "WHERE e.examId = :examId " +
+           "AND er.resultStatus = 'FAIL' " +
+           "ORDER BY er.marksObtained ASC, er.resultId ASC")
+    List<ExamResult> findFailedStudentsByExam(@Param("examId") Long examId, Pageable pageable);
+
+    /**
+     * Find the next page of failed students after a (marks, result ID) keyset cursor
+     * Seeks straight to the cursor instead of skipping rows with OFFSET
+     */
+    @Query(FETCH_FOR_DTO + "WHERE e.examId = :examId " +
+           "AND er.resultStatus = 'FAIL' " +
+           "AND (er.marksObtained > :afterMarks " +
+           "OR (er.marksObtained = :afterMarks AND er.resultId > :afterResultId)) " +
+           "ORDER BY er.marksObtained ASC, er.resultId ASC")
+    List<ExamResult> findFailedStudentsByExamAfter(@Param("examId") Long examId,
+                                                   @Param("afterMarks") Double afterMarks,
+                                                   @Param("afterResultId") Long afterResultId,
+                                                   Pageable pageable);
+
+    /**
+     * Get every result of a class's students for exams held in a date range as DTOs
+     * A single query with no lazy loading, ordered by student then exam date
+     */
+    @Query("SELECT new com.smsytem.students.dto.ExamResultDTO(er.resultId, e.examId, e.examName, sub.subjectName, " +
+           "s.studentID, CONCAT(s.firstName, ' ', s.lastName), CAST(s.roll AS string), er.marksObtained, " +
+           "er.totalMarks, CASE WHEN er.totalMarks > 0 THEN er.marksObtained * 100.0 / er.totalMarks END, " +
+           "er.grade, er.resultStatus, er.remarks, er.isAbsent, u.id, u.name, " +
+           "er.evaluationDate, er.createdAt, er.updatedAt) " +
+           "FROM ExamResult er JOIN er.exam e JOIN e.subject sub JOIN er.student s LEFT JOIN er.evaluatedBy u " +
+           "WHERE s.studentClass.classID = :classId AND e.examDate BETWEEN :termStart AND :termEnd " +
+           "ORDER BY s.studentID, e.examDate, e.examId")
+    List<ExamResultDTO> findDtosByClassAndTerm(@Param("classId") Long classId,
+                                               @Param("termStart") LocalDate termStart,
+                                               @Param("termEnd") LocalDate termEnd);
+
+    /**
+     * All statistics of an exam in one pass using grouping sets
+     * One row per grade, one per result status and one total row; the last two columns
+     * are GROUPING() flags telling which set a row belongs to.
+     * Columns: grade, result status, count, average, min, max, population standard deviation,
+     * grade grouped, status grouped
+     */
+    @Query(value = "SELECT er.grade, er.result_status, COUNT(*), AVG(er.marks_obtained), MIN(er.marks_obtained), " +
+           "MAX(er.marks_obtained), STDDEV_POP(er.marks_obtained), GROUPING(er.grade), GROUPING(er.result_status) " +
+           "FROM exam_results er WHERE er.exam_id = :examId " +
+           "GROUP BY GROUPING SETS ((er.grade), (er.result_status), ()) " +
+           "ORDER BY er.grade, er.result_status",
+           nativeQuery = true)
+    List<Object[]> getExamStatistics(@Param("examId") Long examId);
+
+    /**
+     * Count results of an exam
+     */
+    long countByExamExamId(Long examId);
+
+    /**
+     * Find one exam result and lock its row until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT er FROM ExamResult er WHERE er.resultId = :resultId")
+    Optional<ExamResult> findByIdForUpdate(@Param("resultId") Long resultId);
+
+    /**
+     * Check if an exam has any results
+     */
+    boolean existsByExamExamId(Long examId);
+
     /**
      * Check if result exists for exam and student
      */
@@ -118,4 +178,66 @@ public interface ExamResultRepository extends JpaRepository<ExamResult, Long> {
            "WHERE er.student.studentID = :studentId " +
            "GROUP BY er.resultStatus")
     List<Object[]> getStudentOverallPerformance(@Param("studentId") Long studentId);
+
+    /**
+     * Rank every result of an exam across the exam and within each student's class
+     * Columns: result ID, student ID, student name, roll, class ID, class name, marks, total,
+     * rank, dense rank, percentile, class rank, class dense rank, class percentile
+     */
+    @Query(value = "SELECT er.result_id, er.student_id, s.first_name || ' ' || s.last_name, s.roll_number, " +
+           "s.student_class, c.class_name, er.marks_obtained, er.total_marks, " +
+           "RANK() OVER exam_window, DENSE_RANK() OVER exam_window, " +
+           "(1 - PERCENT_RANK() OVER exam_window) * 100, " +
+           "RANK() OVER class_window, DENSE_RANK() OVER class_window, " +
+           "(1 - PERCENT_RANK() OVER class_window) * 100 " +
+           "FROM exam_results er " +
+           "JOIN students s ON s.studentid = er.student_id " +
+           "LEFT JOIN classes c ON c.classid = s.student_class " +
+           "WHERE er.exam_id = :examId " +
+           "WINDOW exam_window AS (ORDER BY er.marks_obtained DESC), " +
+           "class_window AS (PARTITION BY s.student_class ORDER BY er.marks_obtained DESC) " +
+           "ORDER BY er.marks_obtained DESC, s.roll_number",
+           nativeQuery = true)
+    List<Object[]> getRanksByExam(@Param("examId") Long examId);
+
+    /**
+     * Rank the students of a class by their combined percentage over every exam of a subject
+     * Columns: student ID, student name, roll, exam count, marks sum, total sum, percentage,
+     * rank, dense rank, percentile
+     */
+    @Query(value = "SELECT t.student_id, t.student_name, t.roll_number, t.exam_count, t.marks, t.total, " +
+           "t.percentage, RANK() OVER w, DENSE_RANK() OVER w, (1 - PERCENT_RANK() OVER w) * 100 " +
+           "FROM (SELECT er.student_id, s.first_name || ' ' || s.last_name AS student_name, s.roll_number, " +
+           "COUNT(*) AS exam_count, SUM(er.marks_obtained) AS marks, SUM(er.total_marks) AS total, " +
+           "CASE WHEN SUM(er.total_marks) > 0 THEN SUM(er.marks_obtained) * 100 / SUM(er.total_marks) ELSE 0 END " +
+           "AS percentage " +
+           "FROM exam_results er " +
+           "JOIN exams e ON e.exam_id = er.exam_id " +
+           "JOIN students s ON s.studentid = er.student_id " +
+           "WHERE e.subject_id = :subjectId AND e.class_id = :classId " +
+           "GROUP BY er.student_id, s.first_name, s.last_name, s.roll_number) t " +
+           "WINDOW w AS (ORDER BY t.percentage DESC) " +
+           "ORDER BY t.percentage DESC, t.roll_number",
+           nativeQuery = true)
+    List<Object[]> getRanksBySubjectAndClass(@Param("subjectId") Long subjectId, @Param("classId") Long classId);
+
+    /**
+     * Every (student, exam) cell of a class's gradebook for exams held in a date range
+     * Students without results still get one row per exam, and one row with null exam columns when
+     * there are no exams. Ordered by roll, then exam date.
+     * Columns: student ID, student name, roll, exam ID, exam name, subject name, exam date,
+     * exam total marks, marks obtained (null when no result)
+     */
+    @Query(value = "SELECT s.studentid, s.first_name || ' ' || s.last_name, s.roll_number, " +
+           "e.exam_id, e.exam_name, sub.subject_name, e.exam_date, e.total_marks, er.marks_obtained " +
+           "FROM students s " +
+           "LEFT JOIN exams e ON e.class_id = :classId AND e.exam_date BETWEEN :startDate AND :endDate " +
+           "LEFT JOIN subjects sub ON sub.subjectid = e.subject_id " +
+           "LEFT JOIN exam_results er ON er.exam_id = e.exam_id AND er.student_id = s.studentid " +
+           "WHERE s.student_class = :classId " +
+           "ORDER BY s.roll_number, s.studentid, e.exam_date, e.exam_id",
+           nativeQuery = true)
+    List<Object[]> getGradebookCells(@Param("classId") Long classId,
+                                     @Param("startDate") LocalDate startDate,
+                                     @Param("endDate") LocalDate endDate);
 }
@@ -0,0 +1,59 @@
+package com.smsytem.students.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.smsytem.students.entity.ExamResult;
+import com.smsytem.students.grading.GradeScale;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Custom repository fragment for ExamResult
+ * Holds JDBC-level operations that Spring Data JPA cannot express efficiently
+ */
+public interface ExamResultRepositoryCustom {
+
+    /**
+     * Insert or overwrite exam results keyed by (exam, student)
+     * Uses INSERT ... ON CONFLICT DO UPDATE; created_at of existing rows is preserved.
+     * Existing rows are locked first, so each result reports the marks it actually replaced.
+     */
+    List<WriteResult> upsert(List<ExamResult> results);
+
+    /**
+     * Recompute grade and pass/fail for the next chunk of an exam's results after a result ID
+     * One statement per chunk, with the grade bands inlined as a CASE. Marks and totals are left as stored;
+     * rows scoring above their own total, or with no positive total, are skipped.
+     * Returns every row of the chunk in result ID order, telling which ones were re-graded.
+     */
+    List<RegradeOutcome> regradeChunk(Long examId, long afterResultId, int limit, GradeScale gradeScale,
+                                      double passingPercentage);
+
+    /**
+     * Outcome of re-grading one exam result row
+     */
+    @Getter
+    @AllArgsConstructor
+    class RegradeOutcome {
+        private final Long resultId;
+        private final boolean regraded; // false when the marks are out of range for the row's total
+    }
+
+    /**
+     * Outcome of writing one exam result row
+     */
+    @Getter
+    @AllArgsConstructor
+    class WriteResult {
+        private final Long studentId;
+        private final Long resultId;
+        private final LocalDate createdAt;
+        private final boolean inserted;
+        // Replaced values; null for inserted rows, and for rows another transaction inserted meanwhile
+        private final Double previousMarks;
+        private final Double previousTotal;
+        private final Boolean previousAbsent;
+    }
+}
@@ -0,0 +1,165 @@
+package com.smsytem.students.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.smsytem.students.entity.ExamResult;
+import com.smsytem.students.entity.ExamResult.Grade;
+import com.smsytem.students.grading.GradeScale;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * JDBC implementation of the custom ExamResult repository fragment
+ * Results are upserted in multi-row statements, and each regrade chunk is a single statement
+ * that both updates the chunk's grades and reports which of its rows were skipped.
+ */
+@AllArgsConstructor
+public class ExamResultRepositoryCustomImpl implements ExamResultRepositoryCustom {
+
+    private static final String VALUES_ROW =
+            "(CAST(? AS bigint), CAST(? AS bigint), CAST(? AS double precision), CAST(? AS double precision), " +
+            "CAST(? AS varchar), CAST(? AS varchar), CAST(? AS varchar), CAST(? AS boolean), CAST(? AS bigint), " +
+            "CAST(? AS date), CAST(? AS date), CAST(? AS date))";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO exam_results (exam_id, student_id, marks_obtained, total_marks, grade, result_status, " +
+            "remarks, is_absent, evaluated_by, evaluation_date, created_at, updated_at) VALUES %s " +
+            "ON CONFLICT (exam_id, student_id) DO UPDATE SET marks_obtained = EXCLUDED.marks_obtained, " +
+            "total_marks = EXCLUDED.total_marks, grade = EXCLUDED.grade, result_status = EXCLUDED.result_status, " +
+            "remarks = EXCLUDED.remarks, is_absent = EXCLUDED.is_absent, evaluated_by = EXCLUDED.evaluated_by, " +
+            "evaluation_date = EXCLUDED.evaluation_date, updated_at = EXCLUDED.updated_at " +
+            "RETURNING exam_id, student_id, result_id, created_at, (xmax = 0) AS inserted";
+
+    private static final String LOCK_EXISTING_SQL =
+            "SELECT exam_id, student_id, marks_obtained, total_marks, is_absent FROM exam_results " +
+            "WHERE (exam_id, student_id) IN (SELECT * FROM unnest(CAST(? AS bigint[]), CAST(? AS bigint[]))) " +
+            "FOR UPDATE";
+
+    private static final String REGRADE_SQL =
+            "WITH chunk AS (SELECT r.result_id, r.marks_obtained, r.total_marks FROM exam_results r " +
+            "WHERE r.exam_id = CAST(? AS bigint) AND r.result_id > CAST(? AS bigint) " +
+            "ORDER BY r.result_id LIMIT CAST(? AS integer)), " +
+            "graded AS (UPDATE exam_results er SET grade = CASE %s ELSE 'F' END, " +
+            "result_status = CASE WHEN c.percentage >= CAST(? AS double precision) THEN 'PASS' ELSE 'FAIL' END, " +
+            "updated_at = CAST(? AS date) " +
+            "FROM (SELECT result_id, marks_obtained / total_marks * 100 AS percentage FROM chunk " +
+            "WHERE total_marks > 0 AND marks_obtained <= total_marks) c " +
+            "WHERE er.result_id = c.result_id RETURNING er.result_id) " +
+            "SELECT ch.result_id, g.result_id IS NOT NULL AS regraded FROM chunk ch " +
+            "LEFT JOIN graded g ON g.result_id = ch.result_id ORDER BY ch.result_id";
+
+    private static final String GRADE_BAND =
+            "WHEN c.percentage >= CAST(? AS double precision) THEN CAST(? AS varchar)";
+
+    private static final RowMapper<RegradeOutcome> REGRADE_OUTCOME_MAPPER = (rs, rowNum) -> new RegradeOutcome(
+            rs.getLong("result_id"),
+            rs.getBoolean("regraded"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<WriteResult> upsert(List<ExamResult> results) {
+        if (results.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<WriteResult> written = new ArrayList<>(results.size());
+        for (int from = 0; from < results.size(); from += JdbcBatching.ROWS_PER_STATEMENT) {
+            List<ExamResult> chunk = results.subList(from,
+                    Math.min(from + JdbcBatching.ROWS_PER_STATEMENT, results.size()));
+            String sql = String.format(UPSERT_SQL, String.join(", ", Collections.nCopies(chunk.size(), VALUES_ROW)));
+
+            List<Object> params = new ArrayList<>(chunk.size() * 12);
+            for (ExamResult result : chunk) {
+                params.add(result.getExam().getExamId());
+                params.add(result.getStudent().getStudentID());
+                params.add(result.getMarksObtained());
+                params.add(result.getTotalMarks());
+                params.add(result.getGrade() != null ? result.getGrade().name() : null);
+                params.add(result.getResultStatus() != null ? result.getResultStatus().name() : null);
+                params.add(result.getRemarks());
+                params.add(result.getIsAbsent());
+                params.add(result.getEvaluatedBy() != null ? result.getEvaluatedBy().getId() : null);
+                params.add(toDate(result.getEvaluationDate()));
+                params.add(toDate(result.getCreatedAt()));
+                params.add(toDate(result.getUpdatedAt()));
+            }
+            Map<List<Long>, ExamResult> previous = lockExisting(chunk);
+            written.addAll(jdbcTemplate.query(sql, (rs, rowNum) -> {
+                ExamResult replaced = previous.get(List.of(rs.getLong("exam_id"), rs.getLong("student_id")));
+                Date createdAt = rs.getDate("created_at");
+                return new WriteResult(
+                        rs.getLong("student_id"),
+                        rs.getLong("result_id"),
+                        createdAt != null ? createdAt.toLocalDate() : null,
+                        rs.getBoolean("inserted"),
+                        replaced != null ? replaced.getMarksObtained() : null,
+                        replaced != null ? replaced.getTotalMarks() : null,
+                        replaced != null ? replaced.getIsAbsent() : null);
+            }, params.toArray()));
+        }
+        return written;
+    }
+
+    /**
+     * Lock the chunk's existing rows and read their marks, keyed by (exam ID, student ID)
+     * Row locks return the latest committed values, so a concurrent writer cannot slip in between
+     */
+    private Map<List<Long>, ExamResult> lockExisting(List<ExamResult> chunk) {
+        Long[] examIds = new Long[chunk.size()];
+        Long[] studentIds = new Long[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            examIds[i] = chunk.get(i).getExam().getExamId();
+            studentIds[i] = chunk.get(i).getStudent().getStudentID();
+        }
+
+        Map<List<Long>, ExamResult> existing = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOCK_EXISTING_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", examIds));
+            ps.setArray(2, connection.createArrayOf("bigint", studentIds));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            ExamResult row = new ExamResult();
+            row.setMarksObtained(rs.getDouble("marks_obtained"));
+            row.setTotalMarks(rs.getDouble("total_marks"));
+            row.setIsAbsent(rs.getObject("is_absent", Boolean.class));
+            existing.put(List.of(rs.getLong("exam_id"), rs.getLong("student_id")), row);
+        });
+        return existing;
+    }
+
+    @Override
+    public List<RegradeOutcome> regradeChunk(Long examId, long afterResultId, int limit, GradeScale gradeScale,
+                                             double passingPercentage) {
+        Map<Grade, Double> bands = gradeScale.toMap(); // highest grade first, so the first match wins
+        String sql = String.format(REGRADE_SQL, String.join(" ", Collections.nCopies(bands.size(), GRADE_BAND)));
+
+        List<Object> params = new ArrayList<>(bands.size() * 2 + 5);
+        params.add(examId);
+        params.add(afterResultId);
+        params.add(limit);
+        bands.forEach((grade, minPercentage) -> {
+            params.add(minPercentage);
+            params.add(grade.name());
+        });
+        params.add(passingPercentage);
+        params.add(Date.valueOf(LocalDate.now()));
+        return jdbcTemplate.query(sql, REGRADE_OUTCOME_MAPPER, params.toArray());
+    }
+
+    private static Date toDate(LocalDate value) {
+        return value != null ? Date.valueOf(value) : null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.smsytem.students.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.smsytem.students.entity.Exam.ExamType;
+import com.smsytem.students.entity.GradeScaleBand;
+
+/**
+ * Repository interface for GradeScaleBand entity
+ */
+@Repository
+public interface GradeScaleBandRepository extends JpaRepository<GradeScaleBand, Long> {
+
+    /**
+     * Serialize scale writes until the surrounding transaction ends
+     * The unique constraint cannot stop duplicate bands when year or type is NULL, since PostgreSQL treats NULLs as distinct
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(4208311003)) l", nativeQuery = true)
+    long lockScales();
+
+    /**
+     * Get every band of every scale, grouped by scale
+     */
+    @Query("SELECT b FROM GradeScaleBand b ORDER BY b.academicYear, b.examType, b.minPercentage DESC")
+    List<GradeScaleBand> findAllOrdered();
+
+    /**
+     * Delete one scale; a null year or type selects the scale stored with null
+     */
+    @Modifying
+    @Query("DELETE FROM GradeScaleBand b " +
+           "WHERE (b.academicYear = :academicYear OR (:academicYear IS NULL AND b.academicYear IS NULL)) " +
+           "AND (b.examType = :examType OR (:examType IS NULL AND b.examType IS NULL))")
+    int deleteScale(@Param("academicYear") Integer academicYear, @Param("examType") ExamType examType);
+}
@@ -0,0 +1,16 @@
+package com.smsytem.students.repository;
+
+/**
+ * Chunking shared by the multi-row JDBC statements of the custom repository fragments
+ */
+final class JdbcBatching {
+
+    /**
+     * Rows per multi-row statement; at a dozen bind parameters per row this stays far below
+     * PostgreSQL's limit of 32767 parameters per statement
+     */
+    static final int ROWS_PER_STATEMENT = 500;
+
+    private JdbcBatching() {
+    }
+}
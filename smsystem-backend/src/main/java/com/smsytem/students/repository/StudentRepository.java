@@ -1,5 +1,6 @@
 package com.smsytem.students.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,20 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
      */
     List<Student> findByStudentClassClassID(Long classId);
 
+    /**
+     * Get which of the given student IDs exist
+     */
+    @Query("SELECT s.studentID FROM Student s WHERE s.studentID IN :studentIds")
+    List<Long> findExistingIds(@Param("studentIds") Collection<Long> studentIds);
+
+    /**
+     * Get the roster of a class in roll order
+     * Columns: student ID, first name, last name, roll
+     */
+    @Query("SELECT s.studentID, s.firstName, s.lastName, s.roll FROM Student s " +
+           "WHERE s.studentClass.classID = :classId ORDER BY s.roll, s.studentID")
+    List<Object[]> findRosterByClass(@Param("classId") Long classId);
+
     /**
      * MongoDB populate equivalent: Fetch student with class details using JOIN
      * This is like populate() in MongoDB - fetches related data in one query
@@ -0,0 +1,24 @@
+package com.smsytem.students.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.smsytem.students.dto.AttendanceDTO;
+import com.smsytem.students.dto.AttendanceReceiptDTO;
+
+/**
+ * Service interface for write-behind attendance ingestion
+ * Accepts class submissions into a bounded queue and writes them in coalesced batches
+ */
+public interface AttendanceIngestionService {
+
+    /**
+     * Queue attendance for an entire class and return a receipt immediately
+     */
+    AttendanceReceiptDTO submitClassAttendance(Long classId, LocalDate attendanceDate, List<AttendanceDTO> attendanceList);
+
+    /**
+     * Get the current state of a queued submission
+     */
+    AttendanceReceiptDTO getReceipt(String receiptId);
+}
@@ -1,10 +1,15 @@
 package com.smsytem.students.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
 import com.smsytem.students.dto.AttendanceDTO;
+import com.smsytem.students.dto.AttendanceStatsDTO;
+import com.smsytem.students.dto.BulkAttendanceResultDTO;
+import com.smsytem.students.dto.ClassAttendanceRequestDTO;
 import com.smsytem.students.entity.Attendance.AttendanceStatus;
 
 /**
@@ -18,6 +23,12 @@ public interface AttendanceService {
      */
     AttendanceDTO markAttendance(AttendanceDTO attendanceDTO);
 
+    /**
+     * Mark or overwrite attendance for a student
+     * Idempotent: repeating the same call leaves the same single row
+     */
+    AttendanceDTO upsertAttendance(AttendanceDTO attendanceDTO);
+
     /**
      * Update existing attendance record
      */
@@ -50,13 +61,33 @@ public interface AttendanceService {
 
     /**
      * Mark attendance for entire class
+     * Rejected rows are reported individually instead of aborting the whole batch
+     */
+    BulkAttendanceResultDTO markClassAttendance(Long classId, LocalDate attendanceDate, List<AttendanceDTO> attendanceList);
+
+    /**
+     * Mark or overwrite attendance for entire class
+     * Idempotent: existing rows for the date are replaced instead of rejected
      */
-    List<AttendanceDTO> markClassAttendance(Long classId, LocalDate attendanceDate, List<AttendanceDTO> attendanceList);
+    BulkAttendanceResultDTO upsertClassAttendance(Long classId, LocalDate attendanceDate, List<AttendanceDTO> attendanceList);
+
+    /**
+     * Mark attendance for several class submissions in one transaction
+     * Rows are coalesced into one insert per date; saved rows are counted but not read back
+     */
+    List<BulkAttendanceResultDTO> markClassAttendanceBatch(List<ClassAttendanceRequestDTO> requests);
+
+    /**
+     * Write attendance in a date range, optionally for one class, to a stream as CSV or NDJSON
+     * Rows are streamed from the database and written one at a time
+     */
+    void exportAttendance(LocalDate startDate, LocalDate endDate, Long classId, String format, OutputStream out)
+            throws IOException;
 
     /**
      * Get attendance statistics for a student
      */
-    Map<String, Object> getStudentAttendanceStats(Long studentId, LocalDate startDate, LocalDate endDate);
+    AttendanceStatsDTO getStudentAttendanceStats(Long studentId, LocalDate startDate, LocalDate endDate);
 
     /**
      * Get attendance statistics for a class
@@ -72,4 +103,19 @@ public interface AttendanceService {
      * Get attendance percentage for a student
      */
     Double getStudentAttendancePercentage(Long studentId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Get the number of consecutive absences ending at a date
+     */
+    Long getConsecutiveAbsences(Long studentId, LocalDate asOf);
+
+    /**
+     * Get the memory footprint of the in-memory attendance bitmap index
+     */
+    Map<String, Object> getBitmapIndexFootprint();
+
+    /**
+     * Compare bitmap index, rollup and raw SQL counts for a student, plus the index's absence streak
+     */
+    Map<String, Object> verifyBitmapIndex(Long studentId, LocalDate startDate, LocalDate endDate);
 }
@@ -0,0 +1,12 @@
+package com.smsytem.students.service;
+
+/**
+ * Service interface for publishing exam schedules as iCalendar feeds
+ */
+public interface ExamCalendarService {
+
+    /**
+     * Get every exam of a class as an iCalendar (RFC 5545) document
+     */
+    String getClassCalendar(Long classId);
+}
@@ -0,0 +1,15 @@
+package com.smsytem.students.service;
+
+import com.smsytem.students.dto.ExamStatusTransitionDTO;
+
+/**
+ * Service interface for moving exams through their status lifecycle by the clock
+ */
+public interface ExamLifecycleService {
+
+    /**
+     * Start every scheduled exam whose start time has passed and complete every exam whose end time has passed
+     * With dryRun the due exams are only reported
+     */
+    ExamStatusTransitionDTO advanceStatuses(boolean dryRun);
+}
@@ -0,0 +1,20 @@
+package com.smsytem.students.service;
+
+import com.smsytem.students.dto.RegradeJobDTO;
+
+/**
+ * Service interface for re-grading every result of an exam in the background
+ */
+public interface ExamRegradeService {
+
+    /**
+     * Queue a re-grade of an exam's results with its current marks and grade scale
+     * Each result keeps its marks and total; results scoring above their total are reported, not graded
+     */
+    RegradeJobDTO startRegrade(Long examId);
+
+    /**
+     * Get the progress of the latest re-grade of an exam
+     */
+    RegradeJobDTO getLatestRegrade(Long examId);
+}
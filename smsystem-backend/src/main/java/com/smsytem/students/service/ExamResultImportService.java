@@ -0,0 +1,27 @@
+package com.smsytem.students.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.smsytem.students.dto.ExamResultImportDTO;
+
+/**
+ * Service interface for importing exam results from CSV files
+ */
+public interface ExamResultImportService {
+
+    /**
+     * Import results for an exam from a CSV stream
+     * The header names the columns: studentId and marksObtained are required, totalMarks, remarks
+     * and isAbsent are optional. Marks are out of the exam's total, and a totalMarks value that differs
+     * from it rejects the row, as does any repeat of a student after their first row.
+     * Rows are validated and written a chunk at a time; bad rows are reported instead of failing the import.
+     */
+    ExamResultImportDTO importResults(Long examId, InputStream csv, String fileName) throws IOException;
+
+    /**
+     * Write the rejected rows of an import as CSV, with the reason in the last column
+     */
+    void writeRejectedRows(ExamResultImportDTO importResult, OutputStream out) throws IOException;
+}
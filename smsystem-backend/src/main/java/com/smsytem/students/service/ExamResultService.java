@@ -1,9 +1,16 @@
 package com.smsytem.students.service;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
+import com.smsytem.students.dto.ExamRankDTO;
 import com.smsytem.students.dto.ExamResultDTO;
+import com.smsytem.students.dto.ExamResultPageDTO;
+import com.smsytem.students.dto.ExamStatisticsDTO;
+import com.smsytem.students.dto.GradebookDTO;
+import com.smsytem.students.dto.MarkQuantilesDTO;
+import com.smsytem.students.dto.SubjectRankDTO;
 
 /**
  * Service interface for ExamResult management
@@ -61,6 +68,49 @@ public interface ExamResultService {
      */
     List<ExamResultDTO> getFailedStudentsByExam(Long examId);
 
+    /**
+     * Get one keyset page of students who failed in an exam, lowest marks first
+     */
+    ExamResultPageDTO getFailedStudentsPage(Long examId, Double afterMarks, Long afterResultId, Integer size);
+
+    /**
+     * Get every student's rank, dense rank and percentile in an exam, overall and within their class
+     * Cached per exam until that exam's results change
+     */
+    List<ExamRankDTO> getExamRanks(Long examId);
+
+    /**
+     * Get the ranks of one class's students in an exam
+     */
+    List<ExamRankDTO> getClassRanksForExam(Long examId, Long classId);
+
+    /**
+     * Get a class's ranking in a subject over all of the subject's exams
+     */
+    List<SubjectRankDTO> getSubjectRanks(Long subjectId, Long classId);
+
+    /**
+     * Get a class's marks for every student and every exam held in a date range, with row and column totals
+     */
+    GradebookDTO getClassGradebook(Long classId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Get counts by status, grade histogram, average, min, max and standard deviation of an exam
+     * Computed in one query and cached per exam until that exam's results change
+     */
+    ExamStatisticsDTO getExamStatistics(Long examId);
+
+    /**
+     * Get the median, quartiles and requested percentiles of an exam's marks from its quantile sketch
+     */
+    MarkQuantilesDTO getExamQuantiles(Long examId, List<Double> percentiles);
+
+    /**
+     * Get the same distribution over every exam of a subject and/or class, merged from per-exam sketches
+     * With neither filter the distribution covers the whole school
+     */
+    MarkQuantilesDTO getMergedQuantiles(Long subjectId, Long classId, List<Double> percentiles);
+
     /**
      * Get exam result statistics
      */
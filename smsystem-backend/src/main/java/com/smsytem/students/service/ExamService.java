@@ -4,7 +4,10 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.data.domain.Page;
+
 import com.smsytem.students.dto.ExamDTO;
+import com.smsytem.students.dto.ScheduleValidationDTO;
 import com.smsytem.students.entity.Exam.ExamStatus;
 import com.smsytem.students.entity.Exam.ExamType;
 
@@ -21,6 +24,7 @@ public interface ExamService {
 
     /**
      * Update existing exam
+     * Total marks cannot change once the exam has results
      */
     ExamDTO updateExam(Long examId, ExamDTO examDTO);
 
@@ -54,6 +58,17 @@ public interface ExamService {
      */
     List<ExamDTO> getExamsByDateRange(LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Get exams of a class within a date range, e.g. a term calendar
+     */
+    List<ExamDTO> getExamsByClassAndDateRange(Long classId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Search exams page by page; every filter is optional
+     */
+    Page<ExamDTO> searchExams(Long classId, Long subjectId, ExamStatus status, ExamType examType,
+                              LocalDate startDate, LocalDate endDate, Integer page, Integer size);
+
     /**
      * Get exams by status
      */
@@ -93,4 +108,10 @@ public interface ExamService {
      * Get exams created by a user
      */
     List<ExamDTO> getExamsByCreator(Long creatorId);
+
+    /**
+     * Check a proposed schedule for overlapping slots of one class or one teacher,
+     * both within the schedule and against exams already stored
+     */
+    ScheduleValidationDTO validateSchedule(List<ExamDTO> exams);
 }
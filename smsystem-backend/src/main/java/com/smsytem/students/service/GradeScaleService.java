@@ -0,0 +1,32 @@
+package com.smsytem.students.service;
+
+import java.util.List;
+
+import com.smsytem.students.dto.GradeScaleDTO;
+import com.smsytem.students.entity.Exam.ExamType;
+
+/**
+ * Service interface for grade scale management
+ */
+public interface GradeScaleService {
+
+    /**
+     * Get every stored grade scale
+     */
+    List<GradeScaleDTO> getAllScales();
+
+    /**
+     * Get the scale that grades exams of a year and type, falling back to less specific scales
+     */
+    GradeScaleDTO getEffectiveScale(Integer academicYear, ExamType examType);
+
+    /**
+     * Create or replace the scale for an academic year and exam type
+     */
+    GradeScaleDTO saveScale(GradeScaleDTO gradeScaleDTO);
+
+    /**
+     * Delete the scale for an academic year and exam type
+     */
+    void deleteScale(Integer academicYear, ExamType examType);
+}
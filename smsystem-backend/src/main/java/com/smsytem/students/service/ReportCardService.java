@@ -0,0 +1,44 @@
+package com.smsytem.students.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import com.smsytem.students.dto.ExamResultDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Service interface for class-wide report card generation
+ */
+public interface ReportCardService {
+
+    /**
+     * Load everything needed for a class's report cards in a term with a few set-based queries
+     * Throws ResourceNotFoundException when the class does not exist
+     */
+    ClassReportCards loadClassReportCards(Long classId, LocalDate termStart, LocalDate termEnd);
+
+    /**
+     * Assemble the cards in parallel and write them as NDJSON (one card per line) or a ZIP of JSON files
+     * Cards are written in roll order whatever order they finish in
+     */
+    void writeClassReportCards(ClassReportCards cards, String format, OutputStream out) throws IOException;
+
+    /**
+     * Data loaded for one class and term, held in memory so writing needs no database connection
+     */
+    @Getter
+    @AllArgsConstructor
+    class ClassReportCards {
+        private final Long classId;
+        private final String className;
+        private final LocalDate termStart;
+        private final LocalDate termEnd;
+        private final List<Object[]> roster; // student ID, first name, last name, roll
+        private final Map<Long, List<ExamResultDTO>> resultsByStudent;
+    }
+}
@@ -0,0 +1,274 @@
+package com.smsytem.students.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.smsytem.students.dto.AttendanceDTO;
+import com.smsytem.students.dto.AttendanceReceiptDTO;
+import com.smsytem.students.dto.AttendanceReceiptDTO.ReceiptStatus;
+import com.smsytem.students.dto.BulkAttendanceResultDTO;
+import com.smsytem.students.dto.ClassAttendanceRequestDTO;
+import com.smsytem.students.entity.User;
+import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.repository.UserRepository;
+import com.smsytem.students.service.AttendanceIngestionService;
+import com.smsytem.students.service.AttendanceService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service implementation for write-behind attendance ingestion
+ * A single background writer drains the queue every flush interval or once enough rows are waiting,
+ * so a burst of submissions costs one connection and one transaction per flush.
+ * The queue is bounded in rows rather than submissions, so a few whole-school submissions
+ * cannot hold more memory than many single-class ones.
+ */
+@Slf4j
+@Service
+public class AttendanceIngestionServiceImpl implements AttendanceIngestionService {
+
+    private final AttendanceService attendanceService;
+    private final UserRepository userRepository;
+    private final BlockingQueue<PendingSubmission> queue = new LinkedBlockingQueue<>();
+    private final Semaphore queuedRows; // one permit per row queued or being written
+    private final int queueCapacityRows;
+    private final Map<String, AttendanceReceiptDTO> receipts = new ConcurrentHashMap<>();
+    private final int maxBatchRows;
+    private final long flushIntervalMillis;
+    private final long receiptTtlMinutes;
+
+    private volatile boolean running;
+    private Thread writer;
+    private long lastEvictionNanos = System.nanoTime();
+
+    public AttendanceIngestionServiceImpl(AttendanceService attendanceService,
+                                          UserRepository userRepository,
+                                          @Value("${app.attendance.ingestion.queue-capacity-rows:20000}") int queueCapacityRows,
+                                          @Value("${app.attendance.ingestion.max-batch-rows:2000}") int maxBatchRows,
+                                          @Value("${app.attendance.ingestion.flush-interval-ms:250}") long flushIntervalMillis,
+                                          @Value("${app.attendance.ingestion.receipt-ttl-minutes:60}") long receiptTtlMinutes) {
+        this.attendanceService = attendanceService;
+        this.userRepository = userRepository;
+        this.queuedRows = new Semaphore(queueCapacityRows);
+        this.queueCapacityRows = queueCapacityRows;
+        this.maxBatchRows = maxBatchRows;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.receiptTtlMinutes = receiptTtlMinutes;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "attendance-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop accepting work and let the writer drain what is already queued
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Override
+    public AttendanceReceiptDTO submitClassAttendance(Long classId, LocalDate attendanceDate, List<AttendanceDTO> attendanceList) {
+        // Resolve the marking user now; the writer thread has no security context
+        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        User markedBy = userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + currentUsername));
+
+        int rows = attendanceList.size();
+        if (rows > queueCapacityRows) {
+            throw new IllegalArgumentException("Submission of " + rows + " rows exceeds the ingestion limit of "
+                    + queueCapacityRows + " rows");
+        }
+
+        ClassAttendanceRequestDTO request = new ClassAttendanceRequestDTO(classId, attendanceDate, markedBy.getId(), attendanceList);
+        AttendanceReceiptDTO receipt = new AttendanceReceiptDTO(UUID.randomUUID().toString(), classId, attendanceDate,
+                rows, ReceiptStatus.QUEUED, "Queued for writing", markedBy.getId(), LocalDateTime.now(), null, null);
+
+        if (!running || !queuedRows.tryAcquire(rows)) {
+            throw new IllegalStateException("Attendance ingestion queue is full, please retry shortly");
+        }
+        receipts.put(receipt.getReceiptId(), receipt);
+        queue.add(new PendingSubmission(receipt.getReceiptId(), request));
+        return receipt;
+    }
+
+    @Override
+    public AttendanceReceiptDTO getReceipt(String receiptId) {
+        AttendanceReceiptDTO receipt = receipts.get(receiptId);
+        if (receipt == null || !canRead(receipt)) {
+            // Someone else's receipt is reported as missing, so receipt IDs cannot be probed
+            throw new ResourceNotFoundException("Attendance receipt not found with ID: " + receiptId);
+        }
+        return receipt;
+    }
+
+    /**
+     * Admins can read every receipt; anyone else only the ones they submitted
+     */
+    private boolean canRead(AttendanceReceiptDTO receipt) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (admin) {
+            return true;
+        }
+        String currentUsername = authentication.getName();
+        return userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
+                .map(user -> user.getId().equals(receipt.getSubmittedBy()))
+                .orElse(false);
+    }
+
+    private void runWriter() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<PendingSubmission> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    try {
+                        flush(batch);
+                    } finally {
+                        queuedRows.release(batch.stream().mapToInt(pending -> pending.request.getAttendanceList().size()).sum());
+                    }
+                }
+                evictExpiredReceipts();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Attendance ingestion writer failed", e);
+            }
+        }
+    }
+
+    /**
+     * Wait for the first submission, then keep collecting until the flush interval ends or enough rows are waiting
+     */
+    private List<PendingSubmission> nextBatch() throws InterruptedException {
+        List<PendingSubmission> batch = new ArrayList<>();
+        PendingSubmission first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+
+        int rows = first.request.getAttendanceList().size();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (rows < maxBatchRows) {
+            long remaining = deadline - System.nanoTime();
+            PendingSubmission next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            rows += next.request.getAttendanceList().size();
+        }
+        return batch;
+    }
+
+    /**
+     * Write a batch in one transaction, falling back to one transaction per submission
+     * so a single bad submission cannot reject the others
+     */
+    private void flush(List<PendingSubmission> batch) {
+        try {
+            complete(batch, attendanceService.markClassAttendanceBatch(batch.stream()
+                    .map(pending -> pending.request)
+                    .collect(Collectors.toList())));
+            return;
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                reject(batch.get(0), e);
+                return;
+            }
+            log.warn("Attendance batch of {} submissions failed, retrying individually: {}", batch.size(), e.getMessage());
+        }
+
+        for (PendingSubmission pending : batch) {
+            try {
+                complete(List.of(pending), attendanceService.markClassAttendanceBatch(List.of(pending.request)));
+            } catch (Exception e) {
+                reject(pending, e);
+            }
+        }
+    }
+
+    private void complete(List<PendingSubmission> batch, List<BulkAttendanceResultDTO> results) {
+        for (int i = 0; i < batch.size(); i++) {
+            BulkAttendanceResultDTO result = results.get(i);
+            boolean saved = result.getSavedCount() > 0;
+            String message = result.getErrors().isEmpty()
+                    ? "Class attendance marked successfully"
+                    : saved ? "Class attendance marked with " + result.getErrors().size() + " rejected rows"
+                            : "No attendance rows were saved";
+            finish(batch.get(i), saved ? ReceiptStatus.PERSISTED : ReceiptStatus.REJECTED, message, result);
+        }
+    }
+
+    private void reject(PendingSubmission pending, Exception e) {
+        log.error("Attendance submission for class {} could not be written", pending.request.getClassId(), e);
+        finish(pending, ReceiptStatus.REJECTED, "Failed to mark class attendance: " + e.getMessage(), null);
+    }
+
+    /**
+     * Publish the final receipt state as a new object so readers never see a half-updated receipt
+     */
+    private void finish(PendingSubmission pending, ReceiptStatus status, String message, BulkAttendanceResultDTO result) {
+        String receiptId = pending.receiptId;
+        AttendanceReceiptDTO queued = receipts.get(receiptId);
+        if (queued == null) {
+            return;
+        }
+        receipts.put(receiptId, new AttendanceReceiptDTO(receiptId, queued.getClassId(), queued.getAttendanceDate(),
+                queued.getRowCount(), status, message, queued.getSubmittedBy(), queued.getSubmittedAt(),
+                LocalDateTime.now(), result));
+    }
+
+    /**
+     * Drop finished receipts older than the retention window, checked at most once a minute
+     */
+    private void evictExpiredReceipts() {
+        if (System.nanoTime() - lastEvictionNanos < TimeUnit.MINUTES.toNanos(1)) {
+            return;
+        }
+        lastEvictionNanos = System.nanoTime();
+
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(receiptTtlMinutes);
+        receipts.values().removeIf(receipt -> receipt.getProcessedAt() != null && receipt.getProcessedAt().isBefore(cutoff));
+    }
+
+    /**
+     * A queued submission paired with the receipt it reports to
+     */
+    private static final class PendingSubmission {
+        private final String receiptId;
+        private final ClassAttendanceRequestDTO request;
+
+        private PendingSubmission(String receiptId, ClassAttendanceRequestDTO request) {
+            this.receiptId = receiptId;
+            this.request = request;
+        }
+    }
+}
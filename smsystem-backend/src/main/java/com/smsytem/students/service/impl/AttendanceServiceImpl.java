@@ -1,24 +1,51 @@
 package com.smsytem.students.service.impl;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smsytem.students.cache.AttendanceBitmapIndex;
 import com.smsytem.students.dto.AttendanceDTO;
+import com.smsytem.students.dto.AttendanceStatsDTO;
+import com.smsytem.students.dto.BulkAttendanceResultDTO;
+import com.smsytem.students.dto.ClassAttendanceRequestDTO;
 import com.smsytem.students.entity.Attendance;
 import com.smsytem.students.entity.Attendance.AttendanceStatus;
+import com.smsytem.students.entity.AttendanceMonthlySummary;
 import com.smsytem.students.entity.Student;
 import com.smsytem.students.entity.User;
+import com.smsytem.students.event.AttendanceChangedEvent;
 import com.smsytem.students.exception.AuthException;
 import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.repository.AttendanceMonthlySummaryRepository;
 import com.smsytem.students.repository.AttendanceRepository;
+import com.smsytem.students.repository.AttendanceRepositoryCustom.WriteResult;
 import com.smsytem.students.repository.StudentRepository;
 import com.smsytem.students.repository.UserRepository;
 import com.smsytem.students.service.AttendanceService;
@@ -34,49 +61,35 @@ import lombok.AllArgsConstructor;
 @Transactional
 public class AttendanceServiceImpl implements AttendanceService {
 
+    private static final String CSV_HEADER = "attendanceId,studentId,studentName,className,attendanceDate,status,"
+            + "checkInTime,checkOutTime,remarks,markedBy,markedByName\n";
+
     private final AttendanceRepository attendanceRepository;
+    private final AttendanceMonthlySummaryRepository summaryRepository;
     private final StudentRepository studentRepository;
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Optional<AttendanceBitmapIndex> bitmapIndex;
 
     @Override
     public AttendanceDTO markAttendance(AttendanceDTO attendanceDTO) {
-        // Check if attendance already exists for the student on this date
-        if (attendanceRepository.existsByStudentStudentIDAndAttendanceDate(
-                attendanceDTO.getStudentId(), attendanceDTO.getAttendanceDate())) {
-            throw new AuthException("Attendance already marked for this student on " + attendanceDTO.getAttendanceDate());
-        }
-
-        // Get student entity
-        Student student = studentRepository.findById(attendanceDTO.getStudentId())
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found with ID: " + attendanceDTO.getStudentId()));
-
-        // Get current user (who is marking attendance)
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        User markedBy = userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + currentUsername));
-
-        // Create attendance entity
-        Attendance attendance = new Attendance();
-        attendance.setStudent(student);
-        attendance.setAttendanceDate(attendanceDTO.getAttendanceDate());
-        attendance.setStatus(attendanceDTO.getStatus());
-        attendance.setCheckInTime(attendanceDTO.getCheckInTime());
-        attendance.setCheckOutTime(attendanceDTO.getCheckOutTime());
-        attendance.setRemarks(attendanceDTO.getRemarks());
-        attendance.setMarkedBy(markedBy);
-        attendance.setCreatedAt(LocalDate.now());
-        attendance.setUpdatedAt(LocalDate.now());
+        return writeAttendance(attendanceDTO, false);
+    }
 
-        Attendance savedAttendance = attendanceRepository.save(attendance);
-        return mapToDTO(savedAttendance);
+    @Override
+    public AttendanceDTO upsertAttendance(AttendanceDTO attendanceDTO) {
+        return writeAttendance(attendanceDTO, true);
     }
 
     @Override
     public AttendanceDTO updateAttendance(Long attendanceId, AttendanceDTO attendanceDTO) {
-        Attendance existingAttendance = attendanceRepository.findById(attendanceId)
+        // Locked, so the rollup deltas below start from the status this update actually replaces
+        Attendance existingAttendance = attendanceRepository.findByIdForUpdate(attendanceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found with ID: " + attendanceId));
 
+        AttendanceStatus previousStatus = existingAttendance.getStatus();
+
         // Update fields
         existingAttendance.setStatus(attendanceDTO.getStatus());
         existingAttendance.setCheckInTime(attendanceDTO.getCheckInTime());
@@ -85,14 +98,20 @@ public class AttendanceServiceImpl implements AttendanceService {
         existingAttendance.setUpdatedAt(LocalDate.now());
 
         Attendance updatedAttendance = attendanceRepository.save(existingAttendance);
-        return mapToDTO(updatedAttendance);
+
+        // Move the day from the old status bucket to the new one
+        if (previousStatus != updatedAttendance.getStatus()) {
+            summaryRepository.applyDeltas(List.of(
+                    rollupDelta(updatedAttendance, previousStatus, -1),
+                    rollupDelta(updatedAttendance, updatedAttendance.getStatus(), 1)));
+            publishChange(updatedAttendance, previousStatus, updatedAttendance.getStatus());
+        }
+        return findDto(updatedAttendance.getAttendanceId());
     }
 
     @Override
     public AttendanceDTO getAttendanceById(Long attendanceId) {
-        Attendance attendance = attendanceRepository.findById(attendanceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found with ID: " + attendanceId));
-        return mapToDTO(attendance);
+        return findDto(attendanceId);
     }
 
     @Override
@@ -102,10 +121,7 @@ public class AttendanceServiceImpl implements AttendanceService {
             throw new ResourceNotFoundException("Student not found with ID: " + studentId);
         }
 
-        List<Attendance> attendanceList = attendanceRepository.findByStudentStudentIDOrderByAttendanceDateDesc(studentId);
-        return attendanceList.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return attendanceRepository.findDtosByStudent(studentId);
     }
 
     @Override
@@ -115,137 +131,610 @@ public class AttendanceServiceImpl implements AttendanceService {
             throw new ResourceNotFoundException("Student not found with ID: " + studentId);
         }
 
-        List<Attendance> attendanceList = attendanceRepository.findByStudentAndDateRange(studentId, startDate, endDate);
-        return attendanceList.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return attendanceRepository.findDtosByStudentAndDateRange(studentId, startDate, endDate);
     }
 
     @Override
     public List<AttendanceDTO> getAttendanceByDate(LocalDate attendanceDate) {
-        List<Attendance> attendanceList = attendanceRepository.findByAttendanceDateOrderByStudentStudentID(attendanceDate);
-        return attendanceList.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return attendanceRepository.findDtosByDate(attendanceDate);
     }
 
     @Override
     public List<AttendanceDTO> getClassAttendanceByDate(Long classId, LocalDate attendanceDate) {
-        List<Attendance> attendanceList = attendanceRepository.findByClassAndDate(classId, attendanceDate);
-        return attendanceList.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return attendanceRepository.findDtosByClassAndDate(classId, attendanceDate);
     }
 
     @Override
-    public List<AttendanceDTO> markClassAttendance(Long classId, LocalDate attendanceDate, List<AttendanceDTO> attendanceList) {
-        // Get current user
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        User markedBy = userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + currentUsername));
+    public BulkAttendanceResultDTO markClassAttendance(Long classId, LocalDate attendanceDate, List<AttendanceDTO> attendanceList) {
+        return writeClassAttendance(classId, attendanceDate, attendanceList, false);
+    }
 
-        List<Attendance> savedAttendanceList = attendanceList.stream()
-                .map(attendanceDTO -> {
-                    // Check if attendance already exists
-                    if (attendanceRepository.existsByStudentStudentIDAndAttendanceDate(
-                            attendanceDTO.getStudentId(), attendanceDate)) {
-                        throw new AuthException("Attendance already marked for student ID: " + attendanceDTO.getStudentId() + " on " + attendanceDate);
-                    }
+    @Override
+    public BulkAttendanceResultDTO upsertClassAttendance(Long classId, LocalDate attendanceDate, List<AttendanceDTO> attendanceList) {
+        return writeClassAttendance(classId, attendanceDate, attendanceList, true);
+    }
 
-                    Student student = studentRepository.findById(attendanceDTO.getStudentId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Student not found with ID: " + attendanceDTO.getStudentId()));
+    @Override
+    public List<BulkAttendanceResultDTO> markClassAttendanceBatch(List<ClassAttendanceRequestDTO> requests) {
+        // Resolve students and marking users for every submission with one query each
+        Map<Long, Student> students = findStudents(requests.stream()
+                .flatMap(request -> request.getAttendanceList().stream())
+                .collect(Collectors.toList()));
+        Map<Long, User> users = userRepository.findAllById(requests.stream()
+                .map(ClassAttendanceRequestDTO::getMarkedById)
+                .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<BulkAttendanceResultDTO> results = new ArrayList<>(requests.size());
+        List<Map<Long, Integer>> rowIndexes = new ArrayList<>(requests.size());
+        Map<LocalDate, Set<Long>> claimedByDate = new HashMap<>();
+        Map<LocalDate, List<Attendance>> rowsByDate = new LinkedHashMap<>();
+        for (ClassAttendanceRequestDTO request : requests) {
+            BulkAttendanceResultDTO result = newBulkResult(
+                    request.getClassId(), request.getAttendanceDate(), request.getAttendanceList());
+            Map<Long, Integer> rowIndexByStudent = new HashMap<>();
+            rowsByDate.computeIfAbsent(request.getAttendanceDate(), date -> new ArrayList<>())
+                    .addAll(validateClassRows(request.getAttendanceList(), request.getAttendanceDate(), students,
+                            users.get(request.getMarkedById()),
+                            claimedByDate.computeIfAbsent(request.getAttendanceDate(), date -> new HashSet<>()),
+                            rowIndexByStudent, result));
+            results.add(result);
+            rowIndexes.add(rowIndexByStudent);
+        }
 
-                    Attendance attendance = new Attendance();
-                    attendance.setStudent(student);
-                    attendance.setAttendanceDate(attendanceDate);
-                    attendance.setStatus(attendanceDTO.getStatus());
-                    attendance.setCheckInTime(attendanceDTO.getCheckInTime());
-                    attendance.setCheckOutTime(attendanceDTO.getCheckOutTime());
-                    attendance.setRemarks(attendanceDTO.getRemarks());
-                    attendance.setMarkedBy(markedBy);
-                    attendance.setCreatedAt(LocalDate.now());
-                    attendance.setUpdatedAt(LocalDate.now());
+        // One multi-row insert per date covers every submission in the batch
+        Map<LocalDate, Set<Long>> writtenByDate = new HashMap<>();
+        rowsByDate.forEach((attendanceDate, rows) -> {
+            List<WriteResult> writeResults = attendanceRepository.insertIfAbsent(rows);
+            applyWriteResults(rows, writeResults);
+            writtenByDate.put(attendanceDate, writeResults.stream()
+                    .map(WriteResult::getStudentId)
+                    .collect(Collectors.toSet()));
+        });
+
+        for (int i = 0; i < results.size(); i++) {
+            BulkAttendanceResultDTO result = results.get(i);
+            Set<Long> written = writtenByDate.getOrDefault(result.getAttendanceDate(), Set.of());
+            reportSkippedRows(rowIndexes.get(i), written, result.getAttendanceDate(), result);
+            result.setSavedCount((int) rowIndexes.get(i).keySet().stream().filter(written::contains).count());
+        }
+        return results;
+    }
 
-                    return attendanceRepository.save(attendance);
-                })
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAttendance(LocalDate startDate, LocalDate endDate, Long classId, String format, OutputStream out)
+            throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write(CSV_HEADER);
+        }
 
-        return savedAttendanceList.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        try (Stream<AttendanceDTO> rows = classId != null
+                ? attendanceRepository.streamByClassAndDateRange(classId, startDate, endDate)
+                : attendanceRepository.streamByDateRange(startDate, endDate)) {
+            rows.forEach(row -> {
+                try {
+                    writer.write(csv ? toCsvLine(row) : objectMapper.writeValueAsString(row) + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
     }
 
     @Override
-    public Map<String, Object> getStudentAttendanceStats(Long studentId, LocalDate startDate, LocalDate endDate) {
-        // Verify student exists
-        if (!studentRepository.existsById(studentId)) {
+    public AttendanceStatsDTO getStudentAttendanceStats(Long studentId, LocalDate startDate, LocalDate endDate) {
+        Map<AttendanceStatus, Long> counts = countStudentStatuses(studentId, startDate, endDate);
+
+        // Only an empty result needs the existence check, so the common case skips it
+        if (counts.isEmpty() && !studentRepository.existsById(studentId)) {
             throw new ResourceNotFoundException("Student not found with ID: " + studentId);
         }
 
-        Map<String, Object> stats = new HashMap<>();
-        
-        Long presentDays = attendanceRepository.countByStudentAndStatusInDateRange(studentId, startDate, endDate, AttendanceStatus.PRESENT);
-        Long absentDays = attendanceRepository.countByStudentAndStatusInDateRange(studentId, startDate, endDate, AttendanceStatus.ABSENT);
-        Long lateDays = attendanceRepository.countByStudentAndStatusInDateRange(studentId, startDate, endDate, AttendanceStatus.LATE);
-        Long excusedDays = attendanceRepository.countByStudentAndStatusInDateRange(studentId, startDate, endDate, AttendanceStatus.EXCUSED);
-        Long halfDays = attendanceRepository.countByStudentAndStatusInDateRange(studentId, startDate, endDate, AttendanceStatus.HALF_DAY);
-        
-        Long totalDays = presentDays + absentDays + lateDays + excusedDays + halfDays;
-        Double attendancePercentage = totalDays > 0 ? (presentDays.doubleValue() / totalDays.doubleValue()) * 100 : 0.0;
-
-        stats.put("presentDays", presentDays);
-        stats.put("absentDays", absentDays);
-        stats.put("lateDays", lateDays);
-        stats.put("excusedDays", excusedDays);
-        stats.put("halfDays", halfDays);
-        stats.put("totalDays", totalDays);
-        stats.put("attendancePercentage", Math.round(attendancePercentage * 100.0) / 100.0);
-
-        return stats;
+        return buildStudentStats(counts);
     }
 
     @Override
     public Map<String, Object> getClassAttendanceStats(Long classId, LocalDate startDate, LocalDate endDate) {
-        List<Object[]> results = attendanceRepository.getAttendanceStatsByClass(classId, startDate, endDate);
-        
+        Map<AttendanceStatus, Long> counts = countClassStatuses(classId, startDate, endDate);
+
         Map<String, Object> stats = new HashMap<>();
         Long totalRecords = 0L;
-        
-        for (Object[] result : results) {
-            AttendanceStatus status = (AttendanceStatus) result[0];
-            Long count = (Long) result[1];
-            stats.put(status.name().toLowerCase() + "Count", count);
-            totalRecords += count;
+
+        for (Map.Entry<AttendanceStatus, Long> entry : counts.entrySet()) {
+            if (entry.getValue() > 0) {
+                stats.put(entry.getKey().name().toLowerCase() + "Count", entry.getValue());
+                totalRecords += entry.getValue();
+            }
         }
-        
+
         stats.put("totalRecords", totalRecords);
         return stats;
     }
 
     @Override
     public void deleteAttendance(Long attendanceId) {
-        if (!attendanceRepository.existsById(attendanceId)) {
-            throw new ResourceNotFoundException("Attendance record not found with ID: " + attendanceId);
-        }
-        attendanceRepository.deleteById(attendanceId);
+        Attendance attendance = attendanceRepository.findById(attendanceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found with ID: " + attendanceId));
+        attendanceRepository.delete(attendance);
+        summaryRepository.applyDeltas(List.of(rollupDelta(attendance, attendance.getStatus(), -1)));
+        publishChange(attendance, attendance.getStatus(), null);
     }
 
     @Override
     public Double getStudentAttendancePercentage(Long studentId, LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> stats = getStudentAttendanceStats(studentId, startDate, endDate);
-        return (Double) stats.get("attendancePercentage");
+        return getStudentAttendanceStats(studentId, startDate, endDate).getAttendancePercentage();
+    }
+
+    @Override
+    public Long getConsecutiveAbsences(Long studentId, LocalDate asOf) {
+        OptionalLong fromIndex = bitmapIndex.isPresent() && bitmapIndex.get().covers(asOf, asOf)
+                ? bitmapIndex.get().consecutiveAbsences(studentId, asOf)
+                : OptionalLong.empty();
+        Long absences = fromIndex.isPresent()
+                ? fromIndex.getAsLong()
+                : attendanceRepository.countConsecutiveAbsences(studentId, asOf, AttendanceStatus.ABSENT);
+
+        if (absences == 0 && !studentRepository.existsById(studentId)) {
+            throw new ResourceNotFoundException("Student not found with ID: " + studentId);
+        }
+        return absences;
+    }
+
+    @Override
+    public Map<String, Object> getBitmapIndexFootprint() {
+        return requireBitmapIndex().footprint();
+    }
+
+    @Override
+    public Map<String, Object> verifyBitmapIndex(Long studentId, LocalDate startDate, LocalDate endDate) {
+        AttendanceBitmapIndex index = requireBitmapIndex();
+
+        Map<AttendanceStatus, Long> indexCounts = index.countStudent(studentId, startDate, endDate);
+        Map<AttendanceStatus, Long> rollupCounts = countStudentStatusesWithRollup(studentId, startDate, endDate);
+        Map<AttendanceStatus, Long> sqlCounts = toStatusCounts(
+                attendanceRepository.getAttendanceStatsByStudent(studentId, startDate, endDate));
+        OptionalLong indexAbsences = index.consecutiveAbsences(studentId, endDate);
+        long sqlAbsences = attendanceRepository.countConsecutiveAbsences(studentId, endDate, AttendanceStatus.ABSENT);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("covered", index.covers(startDate, endDate));
+        report.put("indexCounts", indexCounts);
+        report.put("rollupCounts", rollupCounts);
+        report.put("sqlCounts", sqlCounts);
+        report.put("countsMatch", indexCounts.equals(sqlCounts));
+        report.put("rollupCountsMatch", rollupCounts.equals(sqlCounts));
+        // Empty means the index defers to SQL because the streak reaches its first loaded day
+        report.put("indexConsecutiveAbsences", indexAbsences.isPresent() ? indexAbsences.getAsLong() : null);
+        report.put("sqlConsecutiveAbsences", sqlAbsences);
+        report.put("consecutiveAbsencesMatch", !indexAbsences.isPresent() || indexAbsences.getAsLong() == sqlAbsences);
+        return report;
     }
 
     /**
-     * Helper method to map Attendance entity to DTO
+     * Helper method to format one exported row as a CSV line
      */
-    private AttendanceDTO mapToDTO(Attendance attendance) {
-        AttendanceDTO dto = modelMapper.map(attendance, AttendanceDTO.class);
-        dto.setStudentId(attendance.getStudent().getStudentID());
-        dto.setStudentName(attendance.getStudent().getFirstName() + " " + attendance.getStudent().getLastName());
-        dto.setClassName(attendance.getStudent().getStudentClass().getClassName());
-        dto.setMarkedBy(attendance.getMarkedBy().getId());
-        dto.setMarkedByName(attendance.getMarkedBy().getName());
-        return dto;
+    private String toCsvLine(AttendanceDTO row) {
+        return String.join(",",
+                csvField(row.getAttendanceId()), csvField(row.getStudentId()), csvField(row.getStudentName()),
+                csvField(row.getClassName()), csvField(row.getAttendanceDate()), csvField(row.getStatus()),
+                csvField(row.getCheckInTime()), csvField(row.getCheckOutTime()), csvField(row.getRemarks()),
+                csvField(row.getMarkedBy()), csvField(row.getMarkedByName())) + "\n";
+    }
+
+    /**
+     * Helper method to quote a CSV field when it contains a separator, quote or line break
+     */
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Helper method to write a single attendance row
+     * Without overwrite an existing (student, date) row is a conflict; with overwrite it is replaced
+     */
+    private AttendanceDTO writeAttendance(AttendanceDTO attendanceDTO, boolean overwrite) {
+        // Get student entity
+        Student student = studentRepository.findById(attendanceDTO.getStudentId())
+                .orElseThrow(() -> new ResourceNotFoundException("Student not found with ID: " + attendanceDTO.getStudentId()));
+
+        // Get current user (who is marking attendance)
+        User markedBy = currentUser();
+
+        Attendance attendance = buildAttendance(student, attendanceDTO.getAttendanceDate(), attendanceDTO, markedBy);
+        List<Attendance> rows = List.of(attendance);
+
+        // The unique (student, date) constraint decides duplicates, so no existence check is needed first
+        List<WriteResult> results = overwrite ? attendanceRepository.upsert(rows) : attendanceRepository.insertIfAbsent(rows);
+        if (results.isEmpty()) {
+            throw new AuthException("Attendance already marked for this student on " + attendanceDTO.getAttendanceDate());
+        }
+        applyWriteResults(rows, results);
+
+        return findDto(results.get(0).getAttendanceId());
+    }
+
+    /**
+     * Helper method to write attendance for a whole class in one statement per chunk
+     * Invalid rows are reported per index; with overwrite existing rows are replaced instead of rejected
+     */
+    private BulkAttendanceResultDTO writeClassAttendance(Long classId, LocalDate attendanceDate,
+            List<AttendanceDTO> attendanceList, boolean overwrite) {
+        // Get current user
+        User markedBy = currentUser();
+
+        BulkAttendanceResultDTO result = newBulkResult(classId, attendanceDate, attendanceList);
+
+        // Resolve all students of the request with one query
+        Map<Long, Student> students = findStudents(attendanceList);
+
+        Map<Long, Integer> rowIndexByStudent = new HashMap<>();
+        List<Attendance> rows = validateClassRows(attendanceList, attendanceDate, students, markedBy,
+                new HashSet<>(), rowIndexByStudent, result);
+
+        if (!rows.isEmpty()) {
+            List<WriteResult> results = overwrite ? attendanceRepository.upsert(rows) : attendanceRepository.insertIfAbsent(rows);
+            applyWriteResults(rows, results);
+
+            Set<Long> writtenStudentIds = results.stream()
+                    .map(WriteResult::getStudentId)
+                    .collect(Collectors.toSet());
+            reportSkippedRows(rowIndexByStudent, writtenStudentIds, attendanceDate, result);
+
+            if (!writtenStudentIds.isEmpty()) {
+                result.setSaved(attendanceRepository.findDtosByStudentIdsAndDate(writtenStudentIds, attendanceDate));
+            }
+        }
+        result.setSavedCount(result.getSaved().size());
+
+        return result;
+    }
+
+    /**
+     * Helper method to validate submitted class rows and build entities for the accepted ones
+     * Students already claimed for the date (in this request or an earlier one of the same batch) are rejected
+     */
+    private List<Attendance> validateClassRows(List<AttendanceDTO> attendanceList, LocalDate attendanceDate,
+            Map<Long, Student> students, User markedBy, Set<Long> claimedStudentIds,
+            Map<Long, Integer> rowIndexByStudent, BulkAttendanceResultDTO result) {
+        List<Attendance> rows = new ArrayList<>();
+        for (int i = 0; i < attendanceList.size(); i++) {
+            AttendanceDTO attendanceDTO = attendanceList.get(i);
+            Long studentId = attendanceDTO.getStudentId();
+
+            String error = null;
+            if (studentId == null) {
+                error = "Student ID is required";
+            } else if (attendanceDTO.getStatus() == null) {
+                error = "Attendance status is required for student ID: " + studentId;
+            } else if (rowIndexByStudent.containsKey(studentId)) {
+                error = "Duplicate entry for student ID: " + studentId + " in request";
+            } else if (!students.containsKey(studentId)) {
+                error = "Student not found with ID: " + studentId;
+            } else if (!claimedStudentIds.add(studentId)) {
+                error = "Attendance already marked for student ID: " + studentId + " on " + attendanceDate;
+            }
+
+            if (error != null) {
+                result.getErrors().add(new BulkAttendanceResultDTO.RowError(i, studentId, error));
+                continue;
+            }
+            rowIndexByStudent.put(studentId, i);
+            rows.add(buildAttendance(students.get(studentId), attendanceDate, attendanceDTO, markedBy));
+        }
+        return rows;
+    }
+
+    /**
+     * Helper method to report accepted rows that ON CONFLICT DO NOTHING skipped as already marked
+     */
+    private void reportSkippedRows(Map<Long, Integer> rowIndexByStudent, Set<Long> writtenStudentIds,
+            LocalDate attendanceDate, BulkAttendanceResultDTO result) {
+        rowIndexByStudent.forEach((studentId, rowIndex) -> {
+            if (!writtenStudentIds.contains(studentId)) {
+                result.getErrors().add(new BulkAttendanceResultDTO.RowError(rowIndex, studentId,
+                        "Attendance already marked for student ID: " + studentId + " on " + attendanceDate));
+            }
+        });
+        result.getErrors().sort(Comparator.comparingInt(BulkAttendanceResultDTO.RowError::getRowIndex));
+    }
+
+    /**
+     * Helper method to resolve every student referenced by the submitted rows with one query
+     */
+    private Map<Long, Student> findStudents(List<AttendanceDTO> attendanceList) {
+        Set<Long> studentIds = attendanceList.stream()
+                .map(AttendanceDTO::getStudentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getStudentID, Function.identity()));
+    }
+
+    /**
+     * Helper method to start an empty bulk result for a class submission
+     */
+    private BulkAttendanceResultDTO newBulkResult(Long classId, LocalDate attendanceDate, List<AttendanceDTO> attendanceList) {
+        BulkAttendanceResultDTO result = new BulkAttendanceResultDTO();
+        result.setClassId(classId);
+        result.setAttendanceDate(attendanceDate);
+        result.setRequestedCount(attendanceList.size());
+        return result;
+    }
+
+    /**
+     * Helper method to keep the monthly rollup and read models in step with written rows
+     * An overwritten row whose previous status is unknown lost a race with a concurrent insert,
+     * so that student-month is recomputed from raw rows instead of adjusted by delta
+     */
+    private void applyWriteResults(List<Attendance> rows, List<WriteResult> results) {
+        Map<Long, Attendance> rowsByStudent = rows.stream()
+                .collect(Collectors.toMap(attendance -> attendance.getStudent().getStudentID(), Function.identity()));
+
+        List<AttendanceMonthlySummary> deltas = new ArrayList<>();
+        for (WriteResult writeResult : results) {
+            Attendance attendance = rowsByStudent.get(writeResult.getStudentId());
+            // Overwrites keep the class of the first write, so deltas go to the stored bucket
+            attendance.setClassId(writeResult.getClassId());
+            AttendanceStatus newStatus = attendance.getStatus();
+            AttendanceStatus previousStatus = writeResult.getPreviousStatus();
+
+            if (writeResult.isInserted()) {
+                deltas.add(rollupDelta(attendance, newStatus, 1));
+            } else if (previousStatus == null) {
+                summaryRepository.rebuildStudentMonth(writeResult.getStudentId(),
+                        attendance.getAttendanceDate().withDayOfMonth(1));
+            } else if (previousStatus != newStatus) {
+                deltas.add(rollupDelta(attendance, previousStatus, -1));
+                deltas.add(rollupDelta(attendance, newStatus, 1));
+            } else {
+                continue;
+            }
+            publishChange(attendance, previousStatus, newStatus);
+        }
+        summaryRepository.applyDeltas(deltas);
+    }
+
+    /**
+     * Helper method to resolve the authenticated user marking attendance
+     */
+    private User currentUser() {
+        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + currentUsername));
+    }
+
+    /**
+     * Helper method to count a student's attendance per status
+     * Served by the bitmap index when enabled; otherwise whole months come from the
+     * monthly rollup and partial months at the edges from raw rows
+     */
+    private Map<AttendanceStatus, Long> countStudentStatuses(Long studentId, LocalDate startDate, LocalDate endDate) {
+        if (bitmapIndex.isPresent() && bitmapIndex.get().covers(startDate, endDate)) {
+            return bitmapIndex.get().countStudent(studentId, startDate, endDate);
+        }
+        return countStudentStatusesWithRollup(studentId, startDate, endDate);
+    }
+
+    /**
+     * Helper method to count a student's attendance per status from the monthly rollup and raw edge rows
+     */
+    private Map<AttendanceStatus, Long> countStudentStatusesWithRollup(Long studentId, LocalDate startDate,
+                                                                      LocalDate endDate) {
+        RollupRange range = RollupRange.of(startDate, endDate);
+        if (!range.hasFullMonths()) {
+            return toStatusCounts(attendanceRepository.getAttendanceStatsByStudent(studentId, startDate, endDate));
+        }
+
+        Map<AttendanceStatus, Long> counts = toRollupCounts(
+                summaryRepository.sumByStudentAndMonthRange(studentId, range.firstMonth, range.lastMonth));
+        if (range.hasEdges()) {
+            toStatusCounts(attendanceRepository.getAttendanceStatsByStudentInRanges(studentId,
+                    range.headStart, range.headEnd, range.tailStart, range.tailEnd))
+                    .forEach((status, count) -> counts.merge(status, count, Long::sum));
+        }
+        return counts;
+    }
+
+    /**
+     * Helper method to count a class's attendance per status
+     * Served by the bitmap index when enabled; otherwise whole months come from the
+     * monthly rollup and partial months at the edges from raw rows
+     */
+    private Map<AttendanceStatus, Long> countClassStatuses(Long classId, LocalDate startDate, LocalDate endDate) {
+        if (bitmapIndex.isPresent() && bitmapIndex.get().covers(startDate, endDate)) {
+            return bitmapIndex.get().countClass(classId, startDate, endDate);
+        }
+
+        RollupRange range = RollupRange.of(startDate, endDate);
+        if (!range.hasFullMonths()) {
+            return toStatusCounts(attendanceRepository.getAttendanceStatsByClass(classId, startDate, endDate));
+        }
+
+        Map<AttendanceStatus, Long> counts = toRollupCounts(
+                summaryRepository.sumByClassAndMonthRange(classId, range.firstMonth, range.lastMonth));
+        if (range.hasEdges()) {
+            toStatusCounts(attendanceRepository.getAttendanceStatsByClassInRanges(classId,
+                    range.headStart, range.headEnd, range.tailStart, range.tailEnd))
+                    .forEach((status, count) -> counts.merge(status, count, Long::sum));
+        }
+        return counts;
+    }
+
+    /**
+     * Helper method to convert a rollup sum row into a per-status map
+     * Columns follow the declaration order of AttendanceStatus
+     */
+    private Map<AttendanceStatus, Long> toRollupCounts(List<Object[]> results) {
+        Map<AttendanceStatus, Long> counts = new EnumMap<>(AttendanceStatus.class);
+        if (results.isEmpty()) {
+            return counts;
+        }
+
+        Object[] sums = results.get(0);
+        AttendanceStatus[] statuses = AttendanceStatus.values();
+        for (int i = 0; i < statuses.length; i++) {
+            if (sums[i] != null && ((Number) sums[i]).longValue() != 0) {
+                counts.put(statuses[i], ((Number) sums[i]).longValue());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Helper method to convert grouped (status, count) rows into a per-status map
+     */
+    private Map<AttendanceStatus, Long> toStatusCounts(List<Object[]> results) {
+        Map<AttendanceStatus, Long> counts = new EnumMap<>(AttendanceStatus.class);
+        for (Object[] result : results) {
+            counts.merge((AttendanceStatus) result[0], (Long) result[1], Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Helper method to build typed student statistics from per-status counts
+     */
+    private AttendanceStatsDTO buildStudentStats(Map<AttendanceStatus, Long> counts) {
+        AttendanceStatsDTO stats = new AttendanceStatsDTO();
+        stats.setPresentDays(counts.getOrDefault(AttendanceStatus.PRESENT, 0L));
+        stats.setAbsentDays(counts.getOrDefault(AttendanceStatus.ABSENT, 0L));
+        stats.setLateDays(counts.getOrDefault(AttendanceStatus.LATE, 0L));
+        stats.setExcusedDays(counts.getOrDefault(AttendanceStatus.EXCUSED, 0L));
+        stats.setHalfDays(counts.getOrDefault(AttendanceStatus.HALF_DAY, 0L));
+
+        long totalDays = stats.getPresentDays() + stats.getAbsentDays() + stats.getLateDays()
+                + stats.getExcusedDays() + stats.getHalfDays();
+        double attendancePercentage = totalDays > 0 ? ((double) stats.getPresentDays() / totalDays) * 100 : 0.0;
+
+        stats.setTotalDays(totalDays);
+        stats.setAttendancePercentage(Math.round(attendancePercentage * 100.0) / 100.0);
+        return stats;
+    }
+
+    /**
+     * Helper method to announce an attendance change to in-memory read models
+     */
+    private void publishChange(Attendance attendance, AttendanceStatus previousStatus, AttendanceStatus newStatus) {
+        eventPublisher.publishEvent(new AttendanceChangedEvent(
+                attendance.getStudent().getStudentID(), attendance.getClassId(), attendance.getAttendanceDate(),
+                previousStatus, newStatus));
+    }
+
+    /**
+     * Helper method to get the bitmap index or fail when it is disabled
+     */
+    private AttendanceBitmapIndex requireBitmapIndex() {
+        return bitmapIndex.orElseThrow(() -> new ResourceNotFoundException(
+                "Attendance bitmap index is not enabled (app.attendance.bitmap-index.enabled)"));
+    }
+
+    /**
+     * Helper method to build a signed rollup change for one attendance row
+     */
+    private AttendanceMonthlySummary rollupDelta(Attendance attendance, AttendanceStatus status, long delta) {
+        AttendanceMonthlySummary summary = new AttendanceMonthlySummary();
+        summary.setStudentId(attendance.getStudent().getStudentID());
+        summary.setClassId(attendance.getClassId() != null ? attendance.getClassId() : classIdOf(attendance.getStudent()));
+        summary.setSummaryMonth(attendance.getAttendanceDate().withDayOfMonth(1));
+
+        switch (status) {
+            case PRESENT:
+                summary.setPresentCount(delta);
+                break;
+            case ABSENT:
+                summary.setAbsentCount(delta);
+                break;
+            case LATE:
+                summary.setLateCount(delta);
+                break;
+            case EXCUSED:
+                summary.setExcusedCount(delta);
+                break;
+            case HALF_DAY:
+                summary.setHalfDayCount(delta);
+                break;
+        }
+        return summary;
+    }
+
+    /**
+     * Helper method to resolve the class a student currently belongs to
+     */
+    private Long classIdOf(Student student) {
+        return student.getStudentClass() != null ? student.getStudentClass().getClassID() : student.getClassID();
+    }
+
+    /**
+     * Helper method to build a new Attendance entity from DTO values
+     */
+    private Attendance buildAttendance(Student student, LocalDate attendanceDate, AttendanceDTO attendanceDTO, User markedBy) {
+        Attendance attendance = new Attendance();
+        attendance.setStudent(student);
+        attendance.setClassId(classIdOf(student));
+        attendance.setAttendanceDate(attendanceDate);
+        attendance.setStatus(attendanceDTO.getStatus());
+        attendance.setCheckInTime(attendanceDTO.getCheckInTime());
+        attendance.setCheckOutTime(attendanceDTO.getCheckOutTime());
+        attendance.setRemarks(attendanceDTO.getRemarks());
+        attendance.setMarkedBy(markedBy);
+        attendance.setCreatedAt(LocalDate.now());
+        attendance.setUpdatedAt(LocalDate.now());
+        return attendance;
+    }
+
+    /**
+     * Helper method to load one attendance record as a DTO in a single query
+     */
+    private AttendanceDTO findDto(Long attendanceId) {
+        return attendanceRepository.findDtoById(attendanceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found with ID: " + attendanceId));
+    }
+
+    /**
+     * Splits a date range into whole months served by the rollup
+     * and the partial months at either edge that are read from raw rows
+     */
+    private static final class RollupRange {
+        private final LocalDate firstMonth; // First day of the first whole month
+        private final LocalDate lastMonth; // First day of the last whole month
+        private final LocalDate headStart;
+        private final LocalDate headEnd;
+        private final LocalDate tailStart;
+        private final LocalDate tailEnd;
+
+        private RollupRange(LocalDate startDate, LocalDate endDate) {
+            this.firstMonth = startDate.getDayOfMonth() == 1 ? startDate : startDate.withDayOfMonth(1).plusMonths(1);
+            LocalDate afterLastMonth = endDate.plusDays(1).withDayOfMonth(1);
+            this.lastMonth = afterLastMonth.minusMonths(1);
+            this.headStart = startDate;
+            this.headEnd = firstMonth.minusDays(1);
+            this.tailStart = afterLastMonth;
+            this.tailEnd = endDate;
+        }
+
+        static RollupRange of(LocalDate startDate, LocalDate endDate) {
+            return new RollupRange(startDate, endDate);
+        }
+
+        boolean hasFullMonths() {
+            return !firstMonth.isAfter(lastMonth);
+        }
+
+        boolean hasEdges() {
+            return !headStart.isAfter(headEnd) || !tailStart.isAfter(tailEnd);
+        }
     }
 }
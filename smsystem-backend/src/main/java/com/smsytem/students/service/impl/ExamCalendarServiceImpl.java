@@ -0,0 +1,127 @@
+package com.smsytem.students.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.smsytem.students.cache.ExamCacheNames;
+import com.smsytem.students.cache.ExamCalendarVersion;
+import com.smsytem.students.dto.ExamDTO;
+import com.smsytem.students.entity.Exam.ExamStatus;
+import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.repository.ClassRepository;
+import com.smsytem.students.repository.ExamRepository;
+import com.smsytem.students.service.ExamCalendarService;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Service implementation for iCalendar exam feeds
+ * A class's feed is rendered once per exam calendar version and served from cache until the version moves.
+ * Times are written as floating local times, so calendar apps show them in the school's own zone.
+ */
+@AllArgsConstructor
+@Service
+@Transactional(readOnly = true)
+public class ExamCalendarServiceImpl implements ExamCalendarService {
+
+    private static final String CRLF = "\r\n";
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final ExamRepository examRepository;
+    private final ClassRepository classRepository;
+    private final CacheManager cacheManager;
+    private final ExamCalendarVersion examCalendarVersion;
+
+    @Override
+    public String getClassCalendar(Long classId) {
+        Cache calendars = cacheManager.getCache(ExamCacheNames.EXAM_CALENDARS);
+        // Read before the exams, so a feed is never cached under a version newer than its content
+        String key = classId + "@" + examCalendarVersion.current();
+        String cached = calendars.get(key, String.class);
+        if (cached != null) {
+            return cached;
+        }
+        // Looked up outside the cache loader so a missing class surfaces as ResourceNotFoundException
+        String className = classRepository.findClassNameByClassID(classId)
+                .orElseThrow(() -> new ResourceNotFoundException("Class not found with ID: " + classId));
+        return calendars.get(key, () -> render(className, examRepository.findDtosByClass(classId)));
+    }
+
+    private String render(String className, List<ExamDTO> exams) {
+        String stamp = ZonedDateTime.now(ZoneOffset.UTC).format(UTC_DATE_TIME);
+        StringBuilder ics = new StringBuilder(256 + exams.size() * 320);
+        line(ics, "BEGIN:VCALENDAR");
+        line(ics, "VERSION:2.0");
+        line(ics, "PRODID:-//Student Management System//Exam Calendar//EN");
+        line(ics, "CALSCALE:GREGORIAN");
+        line(ics, "METHOD:PUBLISH");
+        line(ics, "X-WR-CALNAME:" + escape(className + " exams"));
+
+        for (ExamDTO exam : exams) {
+            line(ics, "BEGIN:VEVENT");
+            line(ics, "UID:exam-" + exam.getExamId() + "@smsystem");
+            line(ics, "DTSTAMP:" + stamp);
+            line(ics, "DTSTART:" + localDateTime(exam.getExamDate(), exam.getStartTime()));
+            line(ics, "DTEND:" + localDateTime(exam.getExamDate(), exam.getEndTime()));
+            line(ics, "SUMMARY:" + escape(exam.getSubjectName() + ": " + exam.getExamName()));
+            String description = exam.getInstructions() != null ? exam.getInstructions() : exam.getDescription();
+            if (description != null && !description.isEmpty()) {
+                line(ics, "DESCRIPTION:" + escape(description));
+            }
+            if (exam.getExamType() != null) {
+                line(ics, "CATEGORIES:" + exam.getExamType().name());
+            }
+            line(ics, "STATUS:" + (exam.getStatus() == ExamStatus.CANCELLED ? "CANCELLED" : "CONFIRMED"));
+            line(ics, "END:VEVENT");
+        }
+
+        line(ics, "END:VCALENDAR");
+        return ics.toString();
+    }
+
+    private static String localDateTime(LocalDate date, LocalTime time) {
+        return date.atTime(time != null ? time : LocalTime.MIDNIGHT).format(LOCAL_DATE_TIME);
+    }
+
+    /**
+     * Escape a TEXT value as RFC 5545 requires
+     */
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n")
+                .replace("\r", "\\n");
+    }
+
+    /**
+     * Append a content line, folded so no physical line exceeds 75 octets
+     */
+    private static void line(StringBuilder ics, String content) {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int width = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + width > MAX_LINE_OCTETS) {
+                ics.append(CRLF).append(' ');
+                octets = 1;
+            }
+            ics.appendCodePoint(codePoint);
+            octets += width;
+            i += Character.charCount(codePoint);
+        }
+        ics.append(CRLF);
+    }
+}
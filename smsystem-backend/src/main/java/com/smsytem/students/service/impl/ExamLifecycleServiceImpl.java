@@ -0,0 +1,125 @@
+package com.smsytem.students.service.impl;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.smsytem.students.dto.ExamStatusTransitionDTO;
+import com.smsytem.students.event.ExamChangedEvent;
+import com.smsytem.students.service.ExamLifecycleService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service implementation for the exam status lifecycle
+ * Each transition is one UPDATE ... RETURNING over every due exam, run under a transaction-scoped
+ * advisory lock so several instances on the same schedule never work on the same rows at once.
+ * Exams already past their end time go straight to COMPLETED.
+ * Exam dates and times are the school's wall-clock times, so "now" is read in the configured zone.
+ */
+@Slf4j
+@Service
+public class ExamLifecycleServiceImpl implements ExamLifecycleService {
+
+    private static final long LIFECYCLE_LOCK_KEY = 4_208_311_002L;
+
+    private static final String DUE_FOR_COMPLETION =
+            "WHERE status IN ('SCHEDULED', 'IN_PROGRESS') " +
+            "AND (exam_date < ? OR (exam_date = ? AND end_time <= ?))";
+
+    private static final String DUE_FOR_START =
+            "WHERE status = 'SCHEDULED' AND exam_date = ? AND start_time <= ? AND end_time > ?";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE exams SET status = 'COMPLETED', updated_at = ? " + DUE_FOR_COMPLETION + " RETURNING exam_id";
+
+    private static final String START_SQL =
+            "UPDATE exams SET status = 'IN_PROGRESS', updated_at = ? " + DUE_FOR_START + " RETURNING exam_id";
+
+    private static final String FIND_DUE_FOR_COMPLETION_SQL =
+            "SELECT exam_id FROM exams " + DUE_FOR_COMPLETION + " ORDER BY exam_id";
+
+    private static final String FIND_DUE_FOR_START_SQL =
+            "SELECT exam_id FROM exams " + DUE_FOR_START + " ORDER BY exam_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final ZoneId zone;
+
+    public ExamLifecycleServiceImpl(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${app.exams.status-lifecycle.enabled:true}") boolean enabled,
+                                    @Value("${app.exams.status-lifecycle.zone:}") String zone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.zone = zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+    }
+
+    /**
+     * Advance due exams on the configured schedule
+     */
+    @Scheduled(cron = "${app.exams.status-lifecycle.cron:0 * * * * *}", zone = "${app.exams.status-lifecycle.zone:}")
+    public void advanceOnSchedule() {
+        if (!enabled) {
+            return;
+        }
+        ExamStatusTransitionDTO run = advanceStatuses(false);
+        if (!run.getStartedExamIds().isEmpty() || !run.getCompletedExamIds().isEmpty()) {
+            log.info("Exam lifecycle: {} started, {} completed",
+                    run.getStartedExamIds().size(), run.getCompletedExamIds().size());
+        }
+    }
+
+    @Override
+    public ExamStatusTransitionDTO advanceStatuses(boolean dryRun) {
+        // One clock reading for both transitions, so an exam cannot be started and skipped for completion in one run
+        LocalDateTime now = LocalDateTime.now(zone).withNano(0);
+        Date today = Date.valueOf(now.toLocalDate());
+        Time time = Time.valueOf(now.toLocalTime());
+
+        if (dryRun) {
+            List<Long> completed = jdbcTemplate.queryForList(FIND_DUE_FOR_COMPLETION_SQL, Long.class, today, today, time);
+            List<Long> started = jdbcTemplate.queryForList(FIND_DUE_FOR_START_SQL, Long.class, today, time, time);
+            return new ExamStatusTransitionDTO(true, false, now, started, completed);
+        }
+
+        return transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(" + LIFECYCLE_LOCK_KEY + ")", Boolean.class);
+            if (!Boolean.TRUE.equals(locked)) {
+                return new ExamStatusTransitionDTO(false, true, now,
+                        Collections.emptyList(), Collections.emptyList());
+            }
+
+            // Completion runs first so exams that already ended skip IN_PROGRESS
+            List<Long> completed = jdbcTemplate.queryForList(COMPLETE_SQL, Long.class, today, today, today, time);
+            List<Long> started = jdbcTemplate.queryForList(START_SQL, Long.class, today, today, time, time);
+
+            // One event for the batch, delivered after commit so the overview and timetable index see the new statuses
+            if (!completed.isEmpty() || !started.isEmpty()) {
+                List<Long> changed = new ArrayList<>(completed.size() + started.size());
+                changed.addAll(completed);
+                changed.addAll(started);
+                eventPublisher.publishEvent(new ExamChangedEvent(changed));
+            }
+            return new ExamStatusTransitionDTO(false, false, now, started, completed);
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package com.smsytem.students.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.smsytem.students.cache.GradeScaleTable;
+import com.smsytem.students.dto.RegradeJobDTO;
+import com.smsytem.students.dto.RegradeJobDTO.RegradeStatus;
+import com.smsytem.students.entity.Exam;
+import com.smsytem.students.event.ExamGradingChangedEvent;
+import com.smsytem.students.event.ExamResultsChangedEvent;
+import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.grading.GradeScale;
+import com.smsytem.students.repository.ExamRepository;
+import com.smsytem.students.repository.ExamResultRepository;
+import com.smsytem.students.repository.ExamResultRepositoryCustom.RegradeOutcome;
+import com.smsytem.students.service.ExamRegradeService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service implementation for background exam re-grading
+ * Jobs run one at a time on a single worker; each chunk is one UPDATE committed on its own,
+ * so a re-grade holds row locks briefly and reports progress as it goes
+ */
+@Slf4j
+@Service
+public class ExamRegradeServiceImpl implements ExamRegradeService {
+
+    private static final int ROWS_PER_CHUNK = 500;
+
+    private final ExamRepository examRepository;
+    private final ExamResultRepository examResultRepository;
+    private final GradeScaleTable gradeScaleTable;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, RegradeJobDTO> latestJobs = new ConcurrentHashMap<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "exam-regrade");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ExamRegradeServiceImpl(ExamRepository examRepository,
+                                  ExamResultRepository examResultRepository,
+                                  GradeScaleTable gradeScaleTable,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.examRepository = examRepository;
+        this.examResultRepository = examResultRepository;
+        this.gradeScaleTable = gradeScaleTable;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdown();
+    }
+
+    /**
+     * Re-grade automatically once an exam update that affects grading has committed
+     */
+    @TransactionalEventListener
+    public void onExamGradingChanged(ExamGradingChangedEvent event) {
+        startRegrade(event.getExamId());
+    }
+
+    @Override
+    public RegradeJobDTO startRegrade(Long examId) {
+        if (!examRepository.existsById(examId)) {
+            throw new ResourceNotFoundException("Exam not found with ID: " + examId);
+        }
+
+        RegradeJobDTO job = new RegradeJobDTO(UUID.randomUUID().toString(), examId, RegradeStatus.QUEUED, 0, 0,
+                Collections.emptyList(), "Queued for re-grading", LocalDateTime.now(), null, null);
+        latestJobs.put(examId, job);
+        worker.execute(() -> run(job));
+        return job;
+    }
+
+    @Override
+    public RegradeJobDTO getLatestRegrade(Long examId) {
+        RegradeJobDTO job = latestJobs.get(examId);
+        if (job == null) {
+            throw new ResourceNotFoundException("No re-grade has run for exam with ID: " + examId);
+        }
+        return job;
+    }
+
+    private void run(RegradeJobDTO queued) {
+        RegradeJobDTO job = update(queued, RegradeStatus.RUNNING, 0, 0, Collections.emptyList(),
+                "Re-grading", LocalDateTime.now(), null);
+        try {
+            Exam exam = examRepository.findById(queued.getExamId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Exam not found with ID: " + queued.getExamId()));
+            GradeScale gradeScale = gradeScaleTable.scaleFor(exam);
+            double passingPercentage = exam.getPassingMarks() != null
+                    ? exam.getPassingMarks() * 100.0 / exam.getTotalMarks()
+                    : 33.0;
+
+            long totalRows = examResultRepository.countByExamExamId(exam.getExamId());
+            long processedRows = 0;
+            List<Long> outOfRange = new ArrayList<>();
+            long afterResultId = 0;
+            List<RegradeOutcome> chunk;
+            do {
+                chunk = examResultRepository.regradeChunk(exam.getExamId(), afterResultId, ROWS_PER_CHUNK,
+                        gradeScale, passingPercentage);
+                for (RegradeOutcome outcome : chunk) {
+                    if (outcome.isRegraded()) {
+                        processedRows++;
+                    } else {
+                        outOfRange.add(outcome.getResultId());
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    afterResultId = chunk.get(chunk.size() - 1).getResultId();
+                }
+                job = update(job, RegradeStatus.RUNNING, totalRows, processedRows, outOfRange,
+                        "Re-grading", job.getStartedAt(), null);
+            } while (chunk.size() == ROWS_PER_CHUNK);
+
+            // Grades changed but marks did not
+            eventPublisher.publishEvent(new ExamResultsChangedEvent(exam.getExamId(), Collections.emptyList()));
+            String message = "Re-graded " + processedRows + " results"
+                    + (outOfRange.isEmpty() ? "" : "; " + outOfRange.size() + " results score above their total and were not graded");
+            update(job, RegradeStatus.COMPLETED, totalRows, processedRows, outOfRange,
+                    message, job.getStartedAt(), LocalDateTime.now());
+            if (!outOfRange.isEmpty()) {
+                log.warn("Exam {}: {} results score above their total marks", exam.getExamId(), outOfRange.size());
+            }
+            log.info("Re-graded {} results of exam {}", processedRows, exam.getExamId());
+        } catch (Exception e) {
+            log.error("Re-grade of exam {} failed", job.getExamId(), e);
+            update(job, RegradeStatus.FAILED, job.getTotalRows(), job.getProcessedRows(),
+                    job.getOutOfRangeResultIds(), "Re-grade failed: " + e.getMessage(), job.getStartedAt(),
+                    LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Publish a new snapshot of a job; a newer job for the same exam is never overwritten
+     */
+    private RegradeJobDTO update(RegradeJobDTO job, RegradeStatus status, long totalRows, long processedRows,
+                                 List<Long> outOfRangeResultIds, String message,
+                                 LocalDateTime startedAt, LocalDateTime finishedAt) {
+        RegradeJobDTO snapshot = new RegradeJobDTO(job.getJobId(), job.getExamId(), status, totalRows, processedRows,
+                Collections.unmodifiableList(new ArrayList<>(outOfRangeResultIds)), message,
+                job.getSubmittedAt(), startedAt, finishedAt);
+        latestJobs.computeIfPresent(job.getExamId(),
+                (examId, current) -> current.getJobId().equals(job.getJobId()) ? snapshot : current);
+        return snapshot;
+    }
+}
@@ -0,0 +1,320 @@
+package com.smsytem.students.service.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.smsytem.students.dto.ExamResultDTO;
+import com.smsytem.students.dto.ExamResultImportDTO;
+import com.smsytem.students.dto.ExamResultImportDTO.RejectedRow;
+import com.smsytem.students.entity.Exam;
+import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.repository.ExamRepository;
+import com.smsytem.students.repository.StudentRepository;
+import com.smsytem.students.service.ExamResultImportService;
+import com.smsytem.students.service.ExamResultService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service implementation for CSV exam result imports
+ * The file is read line by line; each chunk is validated with one student lookup and written through
+ * the bulk upload in its own transaction, so memory stays flat and a bad row only costs itself.
+ * Quoted fields may contain commas and doubled quotes but not line breaks.
+ */
+@Slf4j
+@Service
+public class ExamResultImportServiceImpl implements ExamResultImportService {
+
+    private static final String REJECTED_HEADER = "line,studentId,marksObtained,totalMarks,remarks,isAbsent,error\n";
+
+    private final ExamRepository examRepository;
+    private final StudentRepository studentRepository;
+    private final ExamResultService examResultService;
+    private final int chunkRows;
+
+    public ExamResultImportServiceImpl(ExamRepository examRepository,
+                                       StudentRepository studentRepository,
+                                       ExamResultService examResultService,
+                                       @Value("${app.exams.import.chunk-rows:500}") int chunkRows) {
+        this.examRepository = examRepository;
+        this.studentRepository = studentRepository;
+        this.examResultService = examResultService;
+        this.chunkRows = chunkRows;
+    }
+
+    @Override
+    public ExamResultImportDTO importResults(Long examId, InputStream csv, String fileName) throws IOException {
+        Exam exam = examRepository.findById(examId)
+                .orElseThrow(() -> new ResourceNotFoundException("Exam not found with ID: " + examId));
+
+        ExamResultImportDTO importResult = new ExamResultImportDTO();
+        importResult.setExamId(examId);
+        importResult.setFileName(fileName);
+        long startedAt = System.currentTimeMillis();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = readHeader(reader.readLine());
+
+        List<RejectedRow> chunk = new ArrayList<>(chunkRows);
+        Map<Long, Long> firstLines = new HashMap<>();
+        long lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            List<String> fields = parseLine(line);
+            chunk.add(new RejectedRow(lineNumber, field(fields, columns, "studentid"),
+                    field(fields, columns, "marksobtained"), field(fields, columns, "totalmarks"),
+                    field(fields, columns, "remarks"), field(fields, columns, "isabsent"), null));
+            if (chunk.size() == chunkRows) {
+                importChunk(exam, chunk, firstLines, importResult);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(exam, chunk, firstLines, importResult);
+        }
+
+        importResult.setRejectedCount(importResult.getRejectedRows().size());
+        log.info("Imported {} of {} rows for exam {} from {} in {} ms", importResult.getImportedRows(),
+                importResult.getTotalRows(), examId, fileName, System.currentTimeMillis() - startedAt);
+        return importResult;
+    }
+
+    @Override
+    public void writeRejectedRows(ExamResultImportDTO importResult, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(REJECTED_HEADER);
+        for (RejectedRow row : importResult.getRejectedRows()) {
+            writer.write(String.join(",",
+                    csvField(row.getLineNumber()), csvField(row.getStudentId()), csvField(row.getMarksObtained()),
+                    csvField(row.getTotalMarks()), csvField(row.getRemarks()), csvField(row.getIsAbsent()),
+                    csvField(row.getMessage())) + "\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Validate a chunk, then write its valid rows in one transaction
+     * firstLines remembers the line each student was first accepted on, so a repeat is rejected
+     * instead of silently overwriting the earlier row
+     */
+    private void importChunk(Exam exam, List<RejectedRow> rows, Map<Long, Long> firstLines,
+                             ExamResultImportDTO importResult) {
+        importResult.setTotalRows(importResult.getTotalRows() + rows.size());
+
+        // Parse every row first so the student lookup covers the whole chunk in one query
+        Map<RejectedRow, ExamResultDTO> parsed = new IdentityHashMap<>();
+        Set<Long> studentIds = new HashSet<>();
+        for (RejectedRow row : rows) {
+            try {
+                ExamResultDTO dto = toResult(row, exam);
+                parsed.put(row, dto);
+                studentIds.add(dto.getStudentId());
+            } catch (IllegalArgumentException e) {
+                reject(importResult, row, e.getMessage());
+            }
+        }
+        Set<Long> existing = studentIds.isEmpty() ? Set.of() : new HashSet<>(studentRepository.findExistingIds(studentIds));
+
+        List<RejectedRow> accepted = new ArrayList<>(parsed.size());
+        List<ExamResultDTO> results = new ArrayList<>(parsed.size());
+        for (RejectedRow row : rows) {
+            ExamResultDTO dto = parsed.get(row);
+            if (dto == null) {
+                continue;
+            }
+            if (!existing.contains(dto.getStudentId())) {
+                reject(importResult, row, "Student not found with ID: " + dto.getStudentId());
+                continue;
+            }
+            Long firstLine = firstLines.putIfAbsent(dto.getStudentId(), row.getLineNumber());
+            if (firstLine != null) {
+                reject(importResult, row, "Duplicate studentId (line " + firstLine + ")");
+                continue;
+            }
+            accepted.add(row);
+            results.add(dto);
+        }
+        if (results.isEmpty()) {
+            return;
+        }
+
+        try {
+            examResultService.bulkUploadResults(exam.getExamId(), results);
+            importResult.setImportedRows(importResult.getImportedRows() + results.size());
+        } catch (Exception e) {
+            // The cause can carry SQL and values from other rows, so it goes to the log only
+            log.warn("Import chunk of {} rows for exam {} failed", results.size(), exam.getExamId(), e);
+            accepted.forEach(row -> reject(importResult, row, "Failed to write row; the chunk was not saved"));
+        }
+    }
+
+    /**
+     * Turn the raw fields of a row into a result; throws IllegalArgumentException naming the problem
+     */
+    private ExamResultDTO toResult(RejectedRow row, Exam exam) {
+        ExamResultDTO dto = new ExamResultDTO();
+        dto.setExamId(exam.getExamId());
+        dto.setStudentId(parseLong(row.getStudentId(), "studentId"));
+
+        Double marksObtained = parseDouble(row.getMarksObtained(), "marksObtained");
+        // Every result of an exam is marked out of the exam's total; the column is only a cross-check
+        double totalMarks = exam.getTotalMarks().doubleValue();
+        if (!isBlank(row.getTotalMarks()) && parseDouble(row.getTotalMarks(), "totalMarks") != totalMarks) {
+            throw new IllegalArgumentException("totalMarks must match the exam's total of " + exam.getTotalMarks());
+        }
+        if (marksObtained < 0 || marksObtained > totalMarks) {
+            throw new IllegalArgumentException("marksObtained must be between 0 and " + exam.getTotalMarks());
+        }
+        dto.setMarksObtained(marksObtained);
+        dto.setTotalMarks(totalMarks);
+        dto.setRemarks(isBlank(row.getRemarks()) ? null : row.getRemarks().trim());
+        dto.setIsAbsent(parseBoolean(row.getIsAbsent()));
+        return dto;
+    }
+
+    private static void reject(ExamResultImportDTO importResult, RejectedRow row, String message) {
+        row.setMessage(message);
+        importResult.getRejectedRows().add(row);
+    }
+
+    /**
+     * Map normalized column names to their positions; studentId and marksObtained are required
+     */
+    private static Map<String, Integer> readHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("The CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+            columns.putIfAbsent("marks".equals(name) ? "marksobtained" : "absent".equals(name) ? "isabsent" : name, i);
+        }
+        if (!columns.containsKey("studentid") || !columns.containsKey("marksobtained")) {
+            throw new IllegalArgumentException("The CSV header must contain studentId and marksObtained columns");
+        }
+        return columns;
+    }
+
+    /**
+     * Split one CSV line, honouring quoted fields and doubled quotes
+     */
+    private static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static Long parseLong(String value, String column) {
+        if (isBlank(value)) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a whole number: " + value);
+        }
+    }
+
+    private static Double parseDouble(String value, String column) {
+        if (isBlank(value)) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            if (Double.isNaN(parsed) || Double.isInfinite(parsed)) {
+                throw new NumberFormatException();
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (isBlank(value)) {
+            return false;
+        }
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "y":
+            case "1":
+                return true;
+            case "false":
+            case "no":
+            case "n":
+            case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException("isAbsent must be true or false: " + value);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Helper method to quote a CSV field when it contains a separator, quote or line break
+     */
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,25 +1,48 @@
 package com.smsytem.students.service.impl;
 
+import java.math.BigDecimal;
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.modelmapper.ModelMapper;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.smsytem.students.cache.ExamCacheNames;
+import com.smsytem.students.cache.ExamMarkSketches;
+import com.smsytem.students.cache.GradeScaleTable;
+import com.smsytem.students.cache.MarkSketch;
+import com.smsytem.students.dto.ExamRankDTO;
 import com.smsytem.students.dto.ExamResultDTO;
+import com.smsytem.students.dto.ExamResultPageDTO;
+import com.smsytem.students.dto.ExamStatisticsDTO;
+import com.smsytem.students.dto.GradebookDTO;
+import com.smsytem.students.dto.MarkQuantilesDTO;
+import com.smsytem.students.dto.SubjectRankDTO;
 import com.smsytem.students.entity.Exam;
 import com.smsytem.students.entity.ExamResult;
 import com.smsytem.students.entity.Student;
 import com.smsytem.students.entity.User;
+import com.smsytem.students.event.ExamResultsChangedEvent;
+import com.smsytem.students.event.ExamResultsChangedEvent.MarkChange;
 import com.smsytem.students.exception.AuthException;
 import com.smsytem.students.exception.ResourceNotFoundException;
 import com.smsytem.students.repository.ExamRepository;
 import com.smsytem.students.repository.ExamResultRepository;
+import com.smsytem.students.repository.ExamResultRepositoryCustom;
 import com.smsytem.students.repository.StudentRepository;
 import com.smsytem.students.repository.UserRepository;
 import com.smsytem.students.service.ExamResultService;
@@ -35,11 +58,18 @@ import lombok.AllArgsConstructor;
 @Transactional
 public class ExamResultServiceImpl implements ExamResultService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final ExamResultRepository examResultRepository;
     private final ExamRepository examRepository;
     private final StudentRepository studentRepository;
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final GradeScaleTable gradeScaleTable;
+    private final ExamMarkSketches examMarkSketches;
 
     @Override
     public ExamResultDTO saveExamResult(ExamResultDTO examResultDTO) {
@@ -54,9 +84,9 @@ public class ExamResultServiceImpl implements ExamResultService {
 
     @Override
     public ExamResultDTO updateExamResult(Long resultId, ExamResultDTO examResultDTO) {
-        ExamResult existingResult = examResultRepository.findById(resultId)
+        // Locked, so the published mark change starts from the marks this update actually replaces
+        ExamResult existingResult = examResultRepository.findByIdForUpdate(resultId)
                 .orElseThrow(() -> new ResourceNotFoundException("Exam result not found with ID: " + resultId));
-        
         return createOrUpdateResult(examResultDTO, existingResult);
     }
 
@@ -100,11 +130,9 @@ public class ExamResultServiceImpl implements ExamResultService {
 
     @Override
     public List<ExamResultDTO> getTopPerformersByExam(Long examId, Integer limit) {
-        List<ExamResult> results = examResultRepository.findTopPerformersByExam(examId);
-        return results.stream()
-                .limit(limit != null ? limit : 10)
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        int pageSize = limit != null && limit > 0 ? limit : 10;
+        List<ExamResult> results = examResultRepository.findTopPerformersByExam(examId, PageRequest.of(0, pageSize));
+        return results.stream().map(this::mapToDTO).collect(Collectors.toList());
     }
 
     @Override
@@ -113,31 +141,209 @@ public class ExamResultServiceImpl implements ExamResultService {
         return results.stream().map(this::mapToDTO).collect(Collectors.toList());
     }
 
+    @Override
+    public ExamResultPageDTO getFailedStudentsPage(Long examId, Double afterMarks, Long afterResultId, Integer size) {
+        int pageSize = size != null && size > 0 ? Math.min(size, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        // Read one extra row to learn whether another page follows
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ExamResult> results = afterMarks != null && afterResultId != null
+                ? examResultRepository.findFailedStudentsByExamAfter(examId, afterMarks, afterResultId, pageable)
+                : examResultRepository.findFailedStudentsByExam(examId, pageable);
+
+        ExamResultPageDTO page = new ExamResultPageDTO();
+        page.setHasMore(results.size() > pageSize);
+        List<ExamResult> pageResults = page.isHasMore() ? results.subList(0, pageSize) : results;
+        page.setResults(pageResults.stream().map(this::mapToDTO).collect(Collectors.toList()));
+        if (page.isHasMore()) {
+            ExamResult last = pageResults.get(pageResults.size() - 1);
+            page.setNextAfterMarks(last.getMarksObtained());
+            page.setNextAfterResultId(last.getResultId());
+        }
+        return page;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ExamRankDTO> getExamRanks(Long examId) {
+        Cache ranksCache = cacheManager.getCache(ExamCacheNames.EXAM_RANKS);
+        List<ExamRankDTO> cached = ranksCache.get(examId, List.class);
+        if (cached != null) {
+            return cached;
+        }
+        // Checked outside the loader: the cache would wrap the exception, and unknown IDs must not take entries
+        if (!examRepository.existsById(examId)) {
+            throw new ResourceNotFoundException("Exam not found with ID: " + examId);
+        }
+        return ranksCache.get(examId, () -> examResultRepository.getRanksByExam(examId).stream()
+                .map(this::toExamRank)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<ExamRankDTO> getClassRanksForExam(Long examId, Long classId) {
+        return getExamRanks(examId).stream()
+                .filter(rank -> classId.equals(rank.getClassId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<SubjectRankDTO> getSubjectRanks(Long subjectId, Long classId) {
+        return cacheManager.getCache(ExamCacheNames.SUBJECT_RANKS).get(subjectId + ":" + classId, () ->
+                examResultRepository.getRanksBySubjectAndClass(subjectId, classId).stream()
+                        .map(this::toSubjectRank)
+                        .collect(Collectors.toList()));
+    }
+
+    @Override
+    public GradebookDTO getClassGradebook(Long classId, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> cells = examResultRepository.getGradebookCells(classId, startDate, endDate);
+
+        // Every student has one row per exam in the same order, so the columns come from the first student
+        Map<Long, Integer> studentIndex = new LinkedHashMap<>();
+        Map<Long, Integer> examIndex = new LinkedHashMap<>();
+        List<Object[]> studentRows = new ArrayList<>();
+        List<Object[]> examColumns = new ArrayList<>();
+        for (Object[] cell : cells) {
+            Long studentId = toLong(cell[0]);
+            if (!studentIndex.containsKey(studentId)) {
+                studentIndex.put(studentId, studentIndex.size());
+                studentRows.add(cell);
+            }
+            Long examId = toLong(cell[3]);
+            if (examId != null && !examIndex.containsKey(examId)) {
+                examIndex.put(examId, examIndex.size());
+                examColumns.add(cell);
+            }
+        }
+
+        int studentCount = studentRows.size();
+        int examCount = examColumns.size();
+        GradebookDTO gradebook = new GradebookDTO();
+        gradebook.setClassId(classId);
+        gradebook.setStartDate(startDate);
+        gradebook.setEndDate(endDate);
+
+        long[] studentIds = new long[studentCount];
+        String[] studentNames = new String[studentCount];
+        String[] studentRolls = new String[studentCount];
+        for (int row = 0; row < studentCount; row++) {
+            Object[] student = studentRows.get(row);
+            studentIds[row] = toLong(student[0]);
+            studentNames[row] = (String) student[1];
+            studentRolls[row] = String.valueOf(student[2]);
+        }
+
+        long[] examIds = new long[examCount];
+        String[] examNames = new String[examCount];
+        String[] subjectNames = new String[examCount];
+        LocalDate[] examDates = new LocalDate[examCount];
+        double[] examTotalMarks = new double[examCount];
+        for (int column = 0; column < examCount; column++) {
+            Object[] exam = examColumns.get(column);
+            examIds[column] = toLong(exam[3]);
+            examNames[column] = (String) exam[4];
+            subjectNames[column] = (String) exam[5];
+            examDates[column] = exam[6] != null ? ((Date) exam[6]).toLocalDate() : null;
+            examTotalMarks[column] = exam[7] != null ? ((Number) exam[7]).doubleValue() : 0;
+        }
+
+        Double[][] marks = new Double[studentCount][examCount];
+        double[] studentTotals = new double[studentCount];
+        double[] examTotals = new double[examCount];
+        double grandTotal = 0;
+        for (Object[] cell : cells) {
+            if (cell[3] == null || cell[8] == null) {
+                continue;
+            }
+            int row = studentIndex.get(toLong(cell[0]));
+            int column = examIndex.get(toLong(cell[3]));
+            double mark = ((Number) cell[8]).doubleValue();
+            marks[row][column] = mark;
+            studentTotals[row] += mark;
+            examTotals[column] += mark;
+            grandTotal += mark;
+        }
+
+        gradebook.setStudentIds(studentIds);
+        gradebook.setStudentNames(studentNames);
+        gradebook.setStudentRolls(studentRolls);
+        gradebook.setExamIds(examIds);
+        gradebook.setExamNames(examNames);
+        gradebook.setSubjectNames(subjectNames);
+        gradebook.setExamDates(examDates);
+        gradebook.setExamTotalMarks(examTotalMarks);
+        gradebook.setMarks(marks);
+        gradebook.setStudentTotals(studentTotals);
+        gradebook.setExamTotals(examTotals);
+        gradebook.setGrandTotal(grandTotal);
+        return gradebook;
+    }
+
+    @Override
+    public ExamStatisticsDTO getExamStatistics(Long examId) {
+        Cache statisticsCache = cacheManager.getCache(ExamCacheNames.EXAM_STATISTICS);
+        ExamStatisticsDTO cached = statisticsCache.get(examId, ExamStatisticsDTO.class);
+        if (cached != null) {
+            return cached;
+        }
+        if (!examRepository.existsById(examId)) {
+            // Unknown exams get empty statistics without taking a cache entry
+            return new ExamStatisticsDTO(examId, 0, new LinkedHashMap<>(), new LinkedHashMap<>(), null, null, null, null);
+        }
+        return statisticsCache.get(examId, () -> {
+            ExamStatisticsDTO statistics = new ExamStatisticsDTO(examId, 0, new LinkedHashMap<>(),
+                    new LinkedHashMap<>(), null, null, null, null);
+            for (Object[] row : examResultRepository.getExamStatistics(examId)) {
+                boolean gradeGrouped = ((Number) row[7]).intValue() == 1;
+                boolean statusGrouped = ((Number) row[8]).intValue() == 1;
+                long count = toLong(row[2]);
+                if (gradeGrouped && statusGrouped) {
+                    statistics.setTotalResults(count);
+                    statistics.setAverage(toDouble(row[3]));
+                    statistics.setMin(toDouble(row[4]));
+                    statistics.setMax(toDouble(row[5]));
+                    statistics.setStandardDeviation(toDouble(row[6]));
+                } else if (!gradeGrouped && row[0] != null) {
+                    statistics.getGradeDistribution().put(row[0].toString(), count);
+                } else if (!statusGrouped && row[1] != null) {
+                    statistics.getStatusCounts().put(row[1].toString(), count);
+                }
+            }
+            return statistics;
+        });
+    }
+
+    @Override
+    public MarkQuantilesDTO getExamQuantiles(Long examId, List<Double> percentiles) {
+        if (!examRepository.existsById(examId)) {
+            throw new ResourceNotFoundException("Exam not found with ID: " + examId);
+        }
+        return toQuantiles(examMarkSketches.sketchFor(examId), examId, null, null, 1, percentiles);
+    }
+
+    @Override
+    public MarkQuantilesDTO getMergedQuantiles(Long subjectId, Long classId, List<Double> percentiles) {
+        List<Long> examIds = examRepository.findExamIds(subjectId, classId);
+        return toQuantiles(examMarkSketches.merged(examIds), null, subjectId, classId, examIds.size(), percentiles);
+    }
+
     @Override
     public Map<String, Object> getExamResultStats(Long examId) {
+        ExamStatisticsDTO statistics = getExamStatistics(examId);
         Map<String, Object> stats = new HashMap<>();
-        List<Object[]> resultStats = examResultRepository.getResultStatsByExam(examId);
-        
-        for (Object[] stat : resultStats) {
-            stats.put(stat[0].toString().toLowerCase() + "Count", stat[1]);
-        }
-        
-        Double classAverage = examResultRepository.getClassAverageByExam(examId);
-        stats.put("classAverage", classAverage);
-        
+        statistics.getStatusCounts().forEach((status, count) -> stats.put(status.toLowerCase() + "Count", count));
+        stats.put("classAverage", statistics.getAverage());
+        stats.put("totalResults", statistics.getTotalResults());
+        stats.put("minMarks", statistics.getMin());
+        stats.put("maxMarks", statistics.getMax());
+        stats.put("standardDeviation", statistics.getStandardDeviation());
+        stats.put("gradeDistribution", statistics.getGradeDistribution());
         return stats;
     }
 
     @Override
     public Map<String, Object> getGradeDistribution(Long examId) {
-        Map<String, Object> distribution = new HashMap<>();
-        List<Object[]> gradeStats = examResultRepository.getGradeDistributionByExam(examId);
-        
-        for (Object[] stat : gradeStats) {
-            distribution.put(stat[0].toString(), stat[1]);
-        }
-        
-        return distribution;
+        return new HashMap<>(getExamStatistics(examId).getGradeDistribution());
     }
 
     @Override
@@ -154,7 +360,7 @@ public class ExamResultServiceImpl implements ExamResultService {
 
     @Override
     public Double getClassAverageByExam(Long examId) {
-        return examResultRepository.getClassAverageByExam(examId);
+        return getExamStatistics(examId).getAverage();
     }
 
     @Override
@@ -164,28 +370,78 @@ public class ExamResultServiceImpl implements ExamResultService {
 
     @Override
     public List<ExamResultDTO> bulkUploadResults(Long examId, List<ExamResultDTO> results) {
-        // Verify exam exists
-        if (!examRepository.existsById(examId)) {
-            throw new ResourceNotFoundException("Exam not found with ID: " + examId);
+        // Load the exam and the evaluator once for the whole upload
+        Exam exam = examRepository.findById(examId)
+                .orElseThrow(() -> new ResourceNotFoundException("Exam not found with ID: " + examId));
+
+        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        User evaluator = userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + currentUsername));
+
+        // A repeated student in one upload keeps the last row, matching a re-upload of the same sheet
+        Map<Long, ExamResultDTO> rowsByStudent = new LinkedHashMap<>();
+        for (ExamResultDTO dto : results) {
+            if (dto.getStudentId() == null) {
+                throw new IllegalArgumentException("Student ID is required for every result");
+            }
+            rowsByStudent.remove(dto.getStudentId());
+            rowsByStudent.put(dto.getStudentId(), dto);
         }
 
-        List<ExamResult> savedResults = results.stream()
-                .map(dto -> {
-                    dto.setExamId(examId);
-                    return createOrUpdateResult(dto, null);
-                })
-                .map(dto -> examResultRepository.findByExamExamIdAndStudentStudentID(dto.getExamId(), dto.getStudentId()).orElse(null))
+        // Fetch all students in one query
+        Map<Long, Student> students = studentRepository.findAllById(rowsByStudent.keySet()).stream()
+                .collect(Collectors.toMap(Student::getStudentID, Function.identity()));
+        List<Long> missing = rowsByStudent.keySet().stream()
+                .filter(studentId -> !students.containsKey(studentId))
                 .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Student not found with ID: " + missing.stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", ")));
+        }
 
-        return savedResults.stream().map(this::mapToDTO).collect(Collectors.toList());
+        // Grade in memory, then write everything with one multi-row upsert per chunk
+        List<ExamResult> examResults = new ArrayList<>(rowsByStudent.size());
+        rowsByStudent.forEach((studentId, dto) -> {
+            dto.setExamId(examId);
+            examResults.add(buildResult(dto, exam, students.get(studentId), evaluator));
+        });
+
+        Map<Long, ExamResultRepositoryCustom.WriteResult> written = examResultRepository.upsert(examResults).stream()
+                .collect(Collectors.toMap(ExamResultRepositoryCustom.WriteResult::getStudentId, Function.identity()));
+        List<MarkChange> markChanges = new ArrayList<>(examResults.size());
+        for (ExamResult result : examResults) {
+            ExamResultRepositoryCustom.WriteResult writeResult = written.get(result.getStudent().getStudentID());
+            if (!writeResult.isInserted() && writeResult.getPreviousMarks() == null) {
+                // Another upload inserted the row after the lock was taken; its replaced marks are unknown
+                markChanges = null;
+                break;
+            }
+            markChanges.add(new MarkChange(
+                    countedMarks(writeResult.getPreviousMarks(), writeResult.getPreviousAbsent()),
+                    writeResult.getPreviousTotal(),
+                    countedMarks(result.getMarksObtained(), result.getIsAbsent()), result.getTotalMarks()));
+        }
+        eventPublisher.publishEvent(new ExamResultsChangedEvent(examId, markChanges));
+
+        // Build the response from the rows already in memory instead of re-reading them
+        return examResults.stream()
+                .map(result -> {
+                    ExamResultRepositoryCustom.WriteResult writeResult = written.get(result.getStudent().getStudentID());
+                    result.setResultId(writeResult.getResultId());
+                    result.setCreatedAt(writeResult.getCreatedAt());
+                    return mapToDTO(result);
+                })
+                .collect(Collectors.toList());
     }
 
     @Override
     public void deleteExamResult(Long resultId) {
-        if (!examResultRepository.existsById(resultId)) {
-            throw new ResourceNotFoundException("Exam result not found with ID: " + resultId);
-        }
-        examResultRepository.deleteById(resultId);
+        ExamResult result = examResultRepository.findByIdForUpdate(resultId)
+                .orElseThrow(() -> new ResourceNotFoundException("Exam result not found with ID: " + resultId));
+        examResultRepository.delete(result);
+        eventPublisher.publishEvent(new ExamResultsChangedEvent(result.getExam().getExamId(), List.of(new MarkChange(
+                countedMarks(result.getMarksObtained(), result.getIsAbsent()), result.getTotalMarks(), null, null))));
     }
 
     @Override
@@ -228,26 +484,124 @@ public class ExamResultServiceImpl implements ExamResultService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + currentUsername));
 
         ExamResult result = existingResult != null ? existingResult : new ExamResult();
+        Long previousExamId = existingResult != null ? existingResult.getExam().getExamId() : null;
+        Double previousMarks = existingResult != null
+                ? countedMarks(existingResult.getMarksObtained(), existingResult.getIsAbsent()) : null;
+        Double previousTotal = existingResult != null ? existingResult.getTotalMarks() : null;
+        applyResultValues(result, examResultDTO, exam, student, evaluator);
         
+        if (existingResult == null) {
+            result.setCreatedAt(LocalDate.now());
+        }
+
+        ExamResult savedResult = examResultRepository.save(result);
+        Double newMarks = countedMarks(savedResult.getMarksObtained(), savedResult.getIsAbsent());
+        if (previousExamId != null && !previousExamId.equals(exam.getExamId())) {
+            // The result moved to another exam, so the exam it left loses its marks
+            eventPublisher.publishEvent(new ExamResultsChangedEvent(previousExamId,
+                    List.of(new MarkChange(previousMarks, previousTotal, null, null))));
+            previousMarks = null;
+            previousTotal = null;
+        }
+        eventPublisher.publishEvent(new ExamResultsChangedEvent(exam.getExamId(),
+                List.of(new MarkChange(previousMarks, previousTotal, newMarks, savedResult.getTotalMarks()))));
+        return mapToDTO(savedResult);
+    }
+
+    /**
+     * Helper method to build a new, graded ExamResult for the bulk path
+     */
+    private ExamResult buildResult(ExamResultDTO examResultDTO, Exam exam, Student student, User evaluator) {
+        ExamResult result = new ExamResult();
+        applyResultValues(result, examResultDTO, exam, student, evaluator);
+        result.setCreatedAt(LocalDate.now());
+        return result;
+    }
+
+    /**
+     * Helper method to copy DTO values onto a result and calculate its grade and status
+     * Every result is marked out of the exam's total; a row giving a different total is rejected
+     */
+    private void applyResultValues(ExamResult result, ExamResultDTO examResultDTO, Exam exam, Student student, User evaluator) {
+        double totalMarks = exam.getTotalMarks().doubleValue();
+        if (examResultDTO.getTotalMarks() != null && examResultDTO.getTotalMarks() != totalMarks) {
+            throw new IllegalArgumentException("Total marks must match the exam's total of " + exam.getTotalMarks());
+        }
+
         result.setExam(exam);
         result.setStudent(student);
         result.setMarksObtained(examResultDTO.getMarksObtained());
-        result.setTotalMarks(examResultDTO.getTotalMarks());
+        result.setTotalMarks(totalMarks);
         result.setRemarks(examResultDTO.getRemarks());
         result.setIsAbsent(examResultDTO.getIsAbsent() != null ? examResultDTO.getIsAbsent() : false);
         result.setEvaluatedBy(evaluator);
         result.setEvaluationDate(LocalDate.now());
-        
-        if (existingResult == null) {
-            result.setCreatedAt(LocalDate.now());
-        }
         result.setUpdatedAt(LocalDate.now());
 
-        // Calculate grade and result status
-        result.calculateResult();
+        // Calculate grade and result status with the scale for this exam's year and type
+        result.calculateResult(gradeScaleTable.scaleFor(exam));
+    }
 
-        ExamResult savedResult = examResultRepository.save(result);
-        return mapToDTO(savedResult);
+    /**
+     * Helper method to drop the marks of absent students, which do not count towards mark distributions
+     */
+    private static Double countedMarks(Double marksObtained, Boolean isAbsent) {
+        return Boolean.TRUE.equals(isAbsent) ? null : marksObtained;
+    }
+
+    /**
+     * Helper method to read the summary and requested percentiles off a sketch
+     */
+    private MarkQuantilesDTO toQuantiles(MarkSketch sketch, Long examId, Long subjectId, Long classId,
+                                         int examCount, List<Double> percentiles) {
+        Map<String, Double> requested = new LinkedHashMap<>();
+        for (Double percentile : percentiles) {
+            if (percentile == null || percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentiles must be between 0 and 100");
+            }
+            requested.put("p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString(),
+                    quantileOrNull(sketch, percentile / 100));
+        }
+        return new MarkQuantilesDTO(examId, subjectId, classId, examCount, sketch.getCount(),
+                quantileOrNull(sketch, 0), quantileOrNull(sketch, 0.25), quantileOrNull(sketch, 0.5),
+                quantileOrNull(sketch, 0.75), quantileOrNull(sketch, 1), requested);
+    }
+
+    private static Double quantileOrNull(MarkSketch sketch, double q) {
+        return sketch.getCount() > 0 ? sketch.quantile(q) : null;
+    }
+
+    /**
+     * Helper method to map a window-function row from getRanksByExam
+     */
+    private ExamRankDTO toExamRank(Object[] row) {
+        return new ExamRankDTO(
+                toLong(row[0]), toLong(row[1]), (String) row[2], String.valueOf(row[3]),
+                toLong(row[4]), (String) row[5], toDouble(row[6]), toDouble(row[7]),
+                toLong(row[8]), toLong(row[9]), round(toDouble(row[10])),
+                toLong(row[11]), toLong(row[12]), round(toDouble(row[13])));
+    }
+
+    /**
+     * Helper method to map a window-function row from getRanksBySubjectAndClass
+     */
+    private SubjectRankDTO toSubjectRank(Object[] row) {
+        return new SubjectRankDTO(
+                toLong(row[0]), (String) row[1], String.valueOf(row[2]), toLong(row[3]),
+                toDouble(row[4]), toDouble(row[5]), round(toDouble(row[6])),
+                toLong(row[7]), toLong(row[8]), round(toDouble(row[9])));
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private static Double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : null;
+    }
+
+    private static double round(Double value) {
+        return value != null ? Math.round(value * 100.0) / 100.0 : 0.0;
     }
 
     /**
@@ -1,27 +1,44 @@
 package com.smsytem.students.service.impl;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 import org.modelmapper.ModelMapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.smsytem.students.cache.ExamCacheNames;
+import com.smsytem.students.cache.ExamScheduleIndex;
+import com.smsytem.students.cache.ExamScheduleIndex.Conflict;
+import com.smsytem.students.cache.ExamScheduleIndex.Resource;
+import com.smsytem.students.cache.ExamScheduleIndex.Slot;
+import com.smsytem.students.dto.ExamConflictDTO;
 import com.smsytem.students.dto.ExamDTO;
+import com.smsytem.students.dto.ScheduleValidationDTO;
 import com.smsytem.students.entity.ClassOrSection;
 import com.smsytem.students.entity.Exam;
 import com.smsytem.students.entity.Exam.ExamStatus;
 import com.smsytem.students.entity.Exam.ExamType;
 import com.smsytem.students.entity.Subject;
 import com.smsytem.students.entity.User;
+import com.smsytem.students.event.ExamChangedEvent;
+import com.smsytem.students.event.ExamGradingChangedEvent;
 import com.smsytem.students.exception.AuthException;
 import com.smsytem.students.exception.ResourceNotFoundException;
 import com.smsytem.students.repository.ClassRepository;
 import com.smsytem.students.repository.ExamRepository;
+import com.smsytem.students.repository.ExamResultRepository;
 import com.smsytem.students.repository.SubjectRepository;
 import com.smsytem.students.repository.UserRepository;
 import com.smsytem.students.service.ExamService;
@@ -37,11 +54,18 @@ import lombok.AllArgsConstructor;
 @Transactional
 public class ExamServiceImpl implements ExamService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final ExamRepository examRepository;
+    private final ExamResultRepository examResultRepository;
     private final SubjectRepository subjectRepository;
     private final ClassRepository classRepository;
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final ExamScheduleIndex examScheduleIndex;
 
     @Override
     public ExamDTO createExam(ExamDTO examDTO) {
@@ -59,9 +83,12 @@ public class ExamServiceImpl implements ExamService {
                 .orElseThrow(() -> new ResourceNotFoundException("Class not found with ID: " + examDTO.getClassId()));
 
         // Get current user as creator
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        User creator = userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + currentUsername));
+        User creator = currentUser();
+
+        if (examDTO.getStatus() != ExamStatus.CANCELLED) {
+            checkScheduleConflicts(new Slot(null, null, examDTO.getExamName(), examDTO.getExamDate(),
+                    examClass.getClassID(), creator.getId(), examDTO.getStartTime(), examDTO.getEndTime()));
+        }
 
         // Create exam entity
         Exam exam = new Exam();
@@ -83,6 +110,7 @@ public class ExamServiceImpl implements ExamService {
         exam.setUpdatedAt(LocalDate.now());
 
         Exam savedExam = examRepository.save(exam);
+        eventPublisher.publishEvent(new ExamChangedEvent(savedExam.getExamId()));
         return mapToDTO(savedExam);
     }
 
@@ -91,6 +119,17 @@ public class ExamServiceImpl implements ExamService {
         Exam existingExam = examRepository.findById(examId)
                 .orElseThrow(() -> new ResourceNotFoundException("Exam not found with ID: " + examId));
 
+        // Results are stored out of the exam's total, so the total is fixed once any are recorded
+        if (!Objects.equals(existingExam.getTotalMarks(), examDTO.getTotalMarks())
+                && examResultRepository.existsByExamExamId(examId)) {
+            throw new AuthException("Total marks cannot change once results have been recorded for this exam");
+        }
+
+        // Passing marks and the grade scale lookup (year and type) decide every result's grade and status
+        boolean gradingChanged = !Objects.equals(existingExam.getPassingMarks(), examDTO.getPassingMarks())
+                || existingExam.getExamType() != examDTO.getExamType()
+                || !Objects.equals(existingExam.getExamDate(), examDTO.getExamDate());
+
         // Update basic fields
         existingExam.setExamName(examDTO.getExamName());
         existingExam.setDescription(examDTO.getDescription());
@@ -119,87 +158,85 @@ public class ExamServiceImpl implements ExamService {
             existingExam.setExamClass(examClass);
         }
 
+        if (existingExam.getStatus() != ExamStatus.CANCELLED) {
+            checkScheduleConflicts(new Slot(examId, null, existingExam.getExamName(), existingExam.getExamDate(),
+                    existingExam.getExamClass().getClassID(),
+                    existingExam.getCreatedBy() != null ? existingExam.getCreatedBy().getId() : null,
+                    existingExam.getStartTime(), existingExam.getEndTime()));
+        }
+
         Exam updatedExam = examRepository.save(existingExam);
+        eventPublisher.publishEvent(new ExamChangedEvent(examId));
+        if (gradingChanged) {
+            // Existing results are re-graded in the background once this update commits
+            eventPublisher.publishEvent(new ExamGradingChangedEvent(examId));
+        }
         return mapToDTO(updatedExam);
     }
 
     @Override
     public ExamDTO getExamById(Long examId) {
-        Exam exam = examRepository.findById(examId)
+        return examRepository.findDtoById(examId)
                 .orElseThrow(() -> new ResourceNotFoundException("Exam not found with ID: " + examId));
-        return mapToDTO(exam);
     }
 
     @Override
     public List<ExamDTO> getAllExams() {
-        List<Exam> exams = examRepository.findAll();
-        return exams.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return examRepository.findAllDtos();
     }
 
     @Override
     public List<ExamDTO> getExamsByClass(Long classId) {
-        List<Exam> exams = examRepository.findByExamClassClassIDOrderByExamDateAsc(classId);
-        return exams.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return examRepository.findDtosByClass(classId);
     }
 
     @Override
     public List<ExamDTO> getExamsBySubject(Long subjectId) {
-        List<Exam> exams = examRepository.findBySubjectSubjectIDOrderByExamDateAsc(subjectId);
-        return exams.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return examRepository.findDtosBySubject(subjectId);
     }
 
     @Override
     public List<ExamDTO> getExamsByClassAndSubject(Long classId, Long subjectId) {
-        List<Exam> exams = examRepository.findByClassAndSubject(classId, subjectId);
-        return exams.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return examRepository.findDtosByClassAndSubject(classId, subjectId);
     }
 
     @Override
     public List<ExamDTO> getExamsByDateRange(LocalDate startDate, LocalDate endDate) {
-        List<Exam> exams = examRepository.findByDateRange(startDate, endDate);
-        return exams.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return examRepository.findDtosByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public List<ExamDTO> getExamsByClassAndDateRange(Long classId, LocalDate startDate, LocalDate endDate) {
+        return examRepository.findDtosByClassAndDateRange(classId, startDate, endDate);
+    }
+
+    @Override
+    public Page<ExamDTO> searchExams(Long classId, Long subjectId, ExamStatus status, ExamType examType,
+                                     LocalDate startDate, LocalDate endDate, Integer page, Integer size) {
+        int pageNumber = page != null && page >= 0 ? page : 0;
+        int pageSize = size != null && size > 0 ? Math.min(size, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        return examRepository.searchDtos(classId, subjectId, status, examType, startDate, endDate,
+                PageRequest.of(pageNumber, pageSize));
     }
 
     @Override
     public List<ExamDTO> getExamsByStatus(ExamStatus status) {
-        List<Exam> exams = examRepository.findByStatusOrderByExamDateAsc(status);
-        return exams.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return examRepository.findDtosByStatus(status);
     }
 
     @Override
     public List<ExamDTO> getExamsByType(ExamType examType) {
-        List<Exam> exams = examRepository.findByExamTypeOrderByExamDateAsc(examType);
-        return exams.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return examRepository.findDtosByType(examType);
     }
 
     @Override
     public List<ExamDTO> getUpcomingExamsByClass(Long classId) {
-        List<Exam> exams = examRepository.findUpcomingExamsByClass(classId, LocalDate.now());
-        return exams.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return examRepository.findUpcomingDtosByClass(classId, LocalDate.now());
     }
 
     @Override
     public List<ExamDTO> getTodaysExams() {
-        List<Exam> exams = examRepository.findTodaysExams(LocalDate.now());
-        return exams.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return examRepository.findDtosByDate(LocalDate.now());
     }
 
     @Override
@@ -211,6 +248,7 @@ public class ExamServiceImpl implements ExamService {
         exam.setUpdatedAt(LocalDate.now());
         
         Exam updatedExam = examRepository.save(exam);
+        eventPublisher.publishEvent(new ExamChangedEvent(examId));
         return mapToDTO(updatedExam);
     }
 
@@ -220,33 +258,114 @@ public class ExamServiceImpl implements ExamService {
             throw new ResourceNotFoundException("Exam not found with ID: " + examId);
         }
         examRepository.deleteById(examId);
+        eventPublisher.publishEvent(new ExamChangedEvent(examId));
     }
 
     @Override
     public Map<String, Object> getExamStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        Long totalExams = examRepository.count();
-        Long scheduledExams = examRepository.countByStatus(ExamStatus.SCHEDULED);
-        Long completedExams = examRepository.countByStatus(ExamStatus.COMPLETED);
-        Long inProgressExams = examRepository.countByStatus(ExamStatus.IN_PROGRESS);
-        Long cancelledExams = examRepository.countByStatus(ExamStatus.CANCELLED);
-        
-        stats.put("totalExams", totalExams);
-        stats.put("scheduledExams", scheduledExams);
-        stats.put("completedExams", completedExams);
-        stats.put("inProgressExams", inProgressExams);
-        stats.put("cancelledExams", cancelledExams);
-        
-        return stats;
+        return cacheManager.getCache(ExamCacheNames.EXAM_OVERVIEW).get(ExamCacheNames.OVERVIEW_KEY, () -> {
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            for (ExamStatus status : ExamStatus.values()) {
+                byStatus.put(status.name(), 0L);
+            }
+            Map<String, Long> byType = new LinkedHashMap<>();
+            Map<String, Long> byMonth = new LinkedHashMap<>();
+            long totalExams = 0;
+
+            for (Object[] row : examRepository.getExamOverviewCounts()) {
+                long count = ((Number) row[3]).longValue();
+                boolean statusGrouped = ((Number) row[4]).intValue() == 1;
+                boolean typeGrouped = ((Number) row[5]).intValue() == 1;
+                boolean monthGrouped = ((Number) row[6]).intValue() == 1;
+                if (statusGrouped && typeGrouped && monthGrouped) {
+                    totalExams = count;
+                } else if (!statusGrouped && row[0] != null) {
+                    byStatus.put(row[0].toString(), count);
+                } else if (!typeGrouped && row[1] != null) {
+                    byType.put(row[1].toString(), count);
+                } else if (!monthGrouped && row[2] != null) {
+                    byMonth.put(row[2].toString(), count);
+                }
+            }
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("totalExams", totalExams);
+            stats.put("scheduledExams", byStatus.get(ExamStatus.SCHEDULED.name()));
+            stats.put("completedExams", byStatus.get(ExamStatus.COMPLETED.name()));
+            stats.put("inProgressExams", byStatus.get(ExamStatus.IN_PROGRESS.name()));
+            stats.put("cancelledExams", byStatus.get(ExamStatus.CANCELLED.name()));
+            stats.put("byStatus", byStatus);
+            stats.put("byType", byType);
+            stats.put("byMonth", byMonth);
+            return Collections.unmodifiableMap(stats);
+        });
     }
 
     @Override
     public List<ExamDTO> getExamsByCreator(Long creatorId) {
-        List<Exam> exams = examRepository.findByCreatedByIdOrderByExamDateDesc(creatorId);
-        return exams.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return examRepository.findDtosByCreator(creatorId);
+    }
+
+    @Override
+    public ScheduleValidationDTO validateSchedule(List<ExamDTO> exams) {
+        Long currentUserId = null;
+        List<Slot> slots = new ArrayList<>(exams.size());
+        for (int i = 0; i < exams.size(); i++) {
+            ExamDTO exam = exams.get(i);
+            if (exam.getExamDate() == null || exam.getStartTime() == null || exam.getEndTime() == null
+                    || !exam.getEndTime().isAfter(exam.getStartTime())) {
+                throw new IllegalArgumentException("Slot " + i + " needs an exam date and an end time after its start time");
+            }
+            Long createdBy = exam.getCreatedBy();
+            if (createdBy == null) {
+                // New slots will be created by the caller, so they are checked against the caller's exams
+                if (currentUserId == null) {
+                    currentUserId = currentUser().getId();
+                }
+                createdBy = currentUserId;
+            }
+            slots.add(new Slot(exam.getExamId(), i, exam.getExamName(), exam.getExamDate(), exam.getClassId(),
+                    createdBy, exam.getStartTime(), exam.getEndTime()));
+        }
+
+        Map<Slot, List<Conflict>> found = examScheduleIndex.validate(slots);
+        List<ExamConflictDTO> conflicts = new ArrayList<>();
+        for (Slot slot : slots) {
+            for (Conflict conflict : found.getOrDefault(slot, Collections.emptyList())) {
+                conflicts.add(toConflictDTO(slot, conflict));
+            }
+        }
+        return new ScheduleValidationDTO(slots.size(), conflicts.isEmpty(), conflicts);
+    }
+
+    /**
+     * Reject a slot that overlaps another exam of the same class or the same teacher
+     */
+    private void checkScheduleConflicts(Slot slot) {
+        if (slot.getExamDate() == null || slot.getStartTime() == null || slot.getEndTime() == null) {
+            return;
+        }
+        List<Conflict> conflicts = examScheduleIndex.findConflicts(slot);
+        if (!conflicts.isEmpty()) {
+            Conflict conflict = conflicts.get(0);
+            Slot existing = conflict.getExisting();
+            throw new AuthException("Exam overlaps '" + existing.getExamName() + "' (ID " + existing.getExamId() + ") "
+                    + (conflict.getResource() == Resource.CLASS ? "for the same class" : "for the same teacher")
+                    + " on " + existing.getExamDate() + " from " + existing.getStartTime() + " to " + existing.getEndTime());
+        }
+    }
+
+    private ExamConflictDTO toConflictDTO(Slot slot, Conflict conflict) {
+        Slot existing = conflict.getExisting();
+        return new ExamConflictDTO(slot.getPosition(), slot.getExamId(), slot.getExamName(),
+                conflict.getResource().name(), existing.getPosition(), existing.getExamId(), existing.getExamName(),
+                existing.getExamDate(), existing.getStartTime(), existing.getEndTime());
+    }
+
+    private User currentUser() {
+        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + currentUsername));
     }
 
     /**
@@ -258,8 +377,10 @@ public class ExamServiceImpl implements ExamService {
         dto.setSubjectName(exam.getSubject().getSubjectName());
         dto.setClassId(exam.getExamClass().getClassID());
         dto.setClassName(exam.getExamClass().getClassName());
-        dto.setCreatedBy(exam.getCreatedBy().getId());
-        dto.setCreatedByName(exam.getCreatedBy().getName());
+        if (exam.getCreatedBy() != null) {
+            dto.setCreatedBy(exam.getCreatedBy().getId());
+            dto.setCreatedByName(exam.getCreatedBy().getName());
+        }
         return dto;
     }
 }
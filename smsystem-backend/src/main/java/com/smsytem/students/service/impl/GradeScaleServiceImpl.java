@@ -0,0 +1,83 @@
+package com.smsytem.students.service.impl;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.smsytem.students.cache.GradeScaleTable;
+import com.smsytem.students.dto.GradeScaleDTO;
+import com.smsytem.students.entity.Exam.ExamType;
+import com.smsytem.students.entity.GradeScaleBand;
+import com.smsytem.students.event.GradeScaleChangedEvent;
+import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.grading.GradeScale;
+import com.smsytem.students.repository.GradeScaleBandRepository;
+import com.smsytem.students.service.GradeScaleService;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Service implementation for grade scale management
+ * Reads are served from GradeScaleTable; writes go to the database and reload the table after commit
+ */
+@AllArgsConstructor
+@Service
+@Transactional
+public class GradeScaleServiceImpl implements GradeScaleService {
+
+    private final GradeScaleBandRepository gradeScaleBandRepository;
+    private final GradeScaleTable gradeScaleTable;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public List<GradeScaleDTO> getAllScales() {
+        return gradeScaleTable.getScales().entrySet().stream()
+                .map(entry -> new GradeScaleDTO(entry.getKey().getAcademicYear(), entry.getKey().getExamType(),
+                        entry.getValue().toMap()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public GradeScaleDTO getEffectiveScale(Integer academicYear, ExamType examType) {
+        return new GradeScaleDTO(academicYear, examType,
+                gradeScaleTable.scaleFor(academicYear, examType).toMap());
+    }
+
+    @Override
+    public GradeScaleDTO saveScale(GradeScaleDTO gradeScaleDTO) {
+        if (gradeScaleDTO.getMinPercentages() == null) {
+            throw new IllegalArgumentException("A grade scale needs at least one band");
+        }
+        gradeScaleDTO.getMinPercentages().values().forEach(minPercentage -> {
+            if (minPercentage != null && (minPercentage < 0 || minPercentage > 100)) {
+                throw new IllegalArgumentException("Minimum percentages must be between 0 and 100");
+            }
+        });
+        // Validates the bands before anything is written
+        GradeScale scale = GradeScale.of(gradeScaleDTO.getMinPercentages());
+
+        gradeScaleBandRepository.lockScales();
+        gradeScaleBandRepository.deleteScale(gradeScaleDTO.getAcademicYear(), gradeScaleDTO.getExamType());
+        gradeScaleBandRepository.flush();
+        List<GradeScaleBand> bands = scale.toMap().entrySet().stream()
+                .map(band -> new GradeScaleBand(null, gradeScaleDTO.getAcademicYear(), gradeScaleDTO.getExamType(),
+                        band.getKey(), band.getValue()))
+                .collect(Collectors.toList());
+        gradeScaleBandRepository.saveAll(bands);
+
+        eventPublisher.publishEvent(new GradeScaleChangedEvent(gradeScaleDTO.getAcademicYear(), gradeScaleDTO.getExamType()));
+        return new GradeScaleDTO(gradeScaleDTO.getAcademicYear(), gradeScaleDTO.getExamType(), scale.toMap());
+    }
+
+    @Override
+    public void deleteScale(Integer academicYear, ExamType examType) {
+        if (gradeScaleBandRepository.deleteScale(academicYear, examType) == 0) {
+            throw new ResourceNotFoundException("No grade scale stored for academic year " + academicYear
+                    + " and exam type " + examType);
+        }
+        eventPublisher.publishEvent(new GradeScaleChangedEvent(academicYear, examType));
+    }
+}
@@ -0,0 +1,184 @@
+package com.smsytem.students.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smsytem.students.dto.ExamResultDTO;
+import com.smsytem.students.dto.ReportCardDTO;
+import com.smsytem.students.exception.ResourceNotFoundException;
+import com.smsytem.students.repository.ClassRepository;
+import com.smsytem.students.repository.ExamResultRepository;
+import com.smsytem.students.repository.StudentRepository;
+import com.smsytem.students.service.ReportCardService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service implementation for class-wide report card generation
+ * Loading takes three queries per class and keeps the term's results for the whole class in memory.
+ * Cards are then built and serialized on a bounded pool a window at a time, so at most one window
+ * of rendered cards is held before it is written out.
+ */
+@Slf4j
+@Service
+public class ReportCardServiceImpl implements ReportCardService {
+
+    private final ExamResultRepository examResultRepository;
+    private final StudentRepository studentRepository;
+    private final ClassRepository classRepository;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final int windowSize;
+
+    public ReportCardServiceImpl(ExamResultRepository examResultRepository,
+                                 StudentRepository studentRepository,
+                                 ClassRepository classRepository,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.exams.report-cards.parallelism:4}") int parallelism) {
+        this.examResultRepository = examResultRepository;
+        this.studentRepository = studentRepository;
+        this.classRepository = classRepository;
+        this.objectMapper = objectMapper;
+        this.windowSize = parallelism * 4;
+
+        // A full queue runs the task on the submitting thread, which throttles the request instead of failing it
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(windowSize),
+                task -> {
+                    Thread thread = new Thread(task, "report-card-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @Override
+    public ClassReportCards loadClassReportCards(Long classId, LocalDate termStart, LocalDate termEnd) {
+        String className = classRepository.findClassNameByClassID(classId)
+                .orElseThrow(() -> new ResourceNotFoundException("Class not found with ID: " + classId));
+
+        List<Object[]> roster = studentRepository.findRosterByClass(classId);
+        Map<Long, List<ExamResultDTO>> resultsByStudent = examResultRepository
+                .findDtosByClassAndTerm(classId, termStart, termEnd).stream()
+                .collect(Collectors.groupingBy(ExamResultDTO::getStudentId));
+
+        return new ClassReportCards(classId, className, termStart, termEnd, roster, resultsByStudent);
+    }
+
+    @Override
+    public void writeClassReportCards(ClassReportCards cards, String format, OutputStream out) throws IOException {
+        boolean zip = "zip".equalsIgnoreCase(format);
+        long startedAt = System.currentTimeMillis();
+        ZipOutputStream zipOut = zip ? new ZipOutputStream(out) : null;
+
+        List<Object[]> roster = cards.getRoster();
+        for (int from = 0; from < roster.size(); from += windowSize) {
+            List<CompletableFuture<byte[]>> window = roster
+                    .subList(from, Math.min(from + windowSize, roster.size())).stream()
+                    .map(student -> CompletableFuture.supplyAsync(() -> render(buildCard(cards, student), zip), executor))
+                    .collect(Collectors.toList());
+
+            for (int i = 0; i < window.size(); i++) {
+                byte[] card = join(window.get(i));
+                if (zip) {
+                    Object[] student = roster.get(from + i);
+                    zipOut.putNextEntry(new ZipEntry("report-card-" + student[3] + "-" + student[0] + ".json"));
+                    zipOut.write(card);
+                    zipOut.closeEntry();
+                } else {
+                    out.write(card);
+                }
+            }
+            out.flush();
+        }
+
+        if (zip) {
+            zipOut.finish();
+        }
+        out.flush();
+        log.info("Wrote {} report cards for class {} in {} ms", roster.size(), cards.getClassId(),
+                System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Build one student's card from the preloaded results
+     */
+    private ReportCardDTO buildCard(ClassReportCards cards, Object[] student) {
+        Long studentId = ((Number) student[0]).longValue();
+        List<ExamResultDTO> results = cards.getResultsByStudent().getOrDefault(studentId, Collections.emptyList());
+
+        // Same shape as the single-student report card, restricted to the term
+        Map<String, Long> overallPerformance = new TreeMap<>();
+        results.stream()
+                .filter(result -> result.getResultStatus() != null)
+                .forEach(result -> overallPerformance.merge(
+                        result.getResultStatus().name().toLowerCase() + "Count", 1L, Long::sum));
+
+        List<Double> percentages = results.stream()
+                .map(ExamResultDTO::getPercentage)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Double averagePercentage = percentages.isEmpty() ? null
+                : Math.round(percentages.stream().mapToDouble(Double::doubleValue).average().getAsDouble() * 100.0) / 100.0;
+
+        return new ReportCardDTO(studentId, student[1] + " " + student[2], String.valueOf(student[3]),
+                cards.getClassId(), cards.getClassName(), cards.getTermStart(), cards.getTermEnd(),
+                new ArrayList<>(results), overallPerformance, averagePercentage);
+    }
+
+    private byte[] render(ReportCardDTO card, boolean zip) {
+        try {
+            if (zip) {
+                return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(card);
+            }
+            byte[] json = objectMapper.writeValueAsBytes(card);
+            byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            return line;
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] join(CompletableFuture<byte[]> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.smsytem.students.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.smsytem.students.cache.ExamScheduleIndex.Conflict;
+import com.smsytem.students.cache.ExamScheduleIndex.Resource;
+import com.smsytem.students.cache.ExamScheduleIndex.Slot;
+
+class ExamScheduleIndexTest {
+
+	private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+	@Test
+	void overlappingSlotOfTheSameClassConflicts() {
+		ExamScheduleIndex index = indexOf(slot(1L, 10L, 100L, "09:00", "10:00"));
+
+		List<Conflict> conflicts = index.findConflicts(slot(null, 10L, 200L, "09:30", "10:30"));
+
+		assertEquals(1, conflicts.size());
+		assertEquals(Resource.CLASS, conflicts.get(0).getResource());
+		assertEquals(1L, conflicts.get(0).getExisting().getExamId());
+	}
+
+	@Test
+	void slotsThatOnlyTouchDoNotConflict() {
+		ExamScheduleIndex index = indexOf(slot(1L, 10L, 100L, "09:00", "10:00"));
+
+		assertTrue(index.findConflicts(slot(null, 10L, 100L, "10:00", "11:00")).isEmpty());
+		assertTrue(index.findConflicts(slot(null, 10L, 100L, "08:00", "09:00")).isEmpty());
+	}
+
+	@Test
+	void longSlotStartingWellBeforeTheCandidateIsFound() {
+		ExamScheduleIndex index = indexOf(
+				slot(1L, 10L, 100L, "08:00", "12:00"),
+				slot(2L, 10L, 100L, "08:30", "09:00"));
+
+		List<Conflict> conflicts = index.findConflicts(slot(null, 10L, 200L, "11:00", "11:30"));
+
+		assertEquals(1, conflicts.size());
+		assertEquals(1L, conflicts.get(0).getExisting().getExamId());
+	}
+
+	@Test
+	void sameTeacherInAnotherClassConflictsOnCreator() {
+		ExamScheduleIndex index = indexOf(slot(1L, 10L, 100L, "09:00", "10:00"));
+
+		List<Conflict> conflicts = index.findConflicts(slot(null, 11L, 100L, "09:15", "09:45"));
+
+		assertEquals(1, conflicts.size());
+		assertEquals(Resource.CREATOR, conflicts.get(0).getResource());
+	}
+
+	@Test
+	void otherDaysAndUnrelatedClassesDoNotConflict() {
+		ExamScheduleIndex index = indexOf(slot(1L, 10L, 100L, "09:00", "10:00"));
+
+		assertTrue(index.findConflicts(new Slot(null, null, "Other day", DAY.plusDays(1), 10L, 100L,
+				LocalTime.parse("09:00"), LocalTime.parse("10:00"))).isEmpty());
+		assertTrue(index.findConflicts(slot(null, 11L, 101L, "09:00", "10:00")).isEmpty());
+	}
+
+	@Test
+	void examIsNotInConflictWithItself() {
+		ExamScheduleIndex index = indexOf(slot(1L, 10L, 100L, "09:00", "10:00"));
+
+		assertTrue(index.findConflicts(slot(1L, 10L, 100L, "09:30", "10:30")).isEmpty());
+	}
+
+	@Test
+	void rescheduledExamIsJudgedByItsNewSlotOnly() {
+		ExamScheduleIndex index = indexOf(slot(1L, 10L, 100L, "09:00", "10:00"));
+		Slot moved = new Slot(1L, 0, "Moved", DAY, 10L, 100L, LocalTime.parse("13:00"), LocalTime.parse("14:00"));
+		Slot added = new Slot(null, 1, "Added", DAY, 10L, 200L, LocalTime.parse("09:00"), LocalTime.parse("10:00"));
+
+		assertTrue(index.validate(Arrays.asList(moved, added)).isEmpty());
+	}
+
+	@Test
+	void clashInsideTheScheduleIsReportedOnceOnTheLaterSlot() {
+		ExamScheduleIndex index = indexOf();
+		Slot first = new Slot(null, 0, "First", DAY, 10L, 100L, LocalTime.parse("09:00"), LocalTime.parse("10:00"));
+		Slot second = new Slot(null, 1, "Second", DAY, 10L, 200L, LocalTime.parse("09:30"), LocalTime.parse("10:30"));
+
+		Map<Slot, List<Conflict>> conflicts = index.validate(Arrays.asList(first, second));
+
+		assertEquals(1, conflicts.size());
+		assertEquals(1, conflicts.get(second).size());
+		assertEquals(first, conflicts.get(second).get(0).getExisting());
+	}
+
+	private static Slot slot(Long examId, Long classId, Long createdBy, String start, String end) {
+		return new Slot(examId, null, "Exam " + examId, DAY, classId, createdBy,
+				LocalTime.parse(start), LocalTime.parse(end));
+	}
+
+	/**
+	 * Index whose full load returns the given slots
+	 */
+	private static ExamScheduleIndex indexOf(Slot... stored) {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			for (Slot slot : stored) {
+				handler.processRow(row(slot));
+			}
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+		ExamScheduleIndex index = new ExamScheduleIndex(jdbcTemplate);
+		index.load();
+		return index;
+	}
+
+	private static ResultSet row(Slot slot) throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getLong("exam_id")).thenReturn(slot.getExamId());
+		when(rs.getString("exam_name")).thenReturn(slot.getExamName());
+		when(rs.getDate("exam_date")).thenReturn(Date.valueOf(slot.getExamDate()));
+		when(rs.getObject("class_id", Long.class)).thenReturn(slot.getClassId());
+		when(rs.getObject("created_by", Long.class)).thenReturn(slot.getCreatedBy());
+		when(rs.getTime("start_time")).thenReturn(Time.valueOf(slot.getStartTime()));
+		when(rs.getTime("end_time")).thenReturn(Time.valueOf(slot.getEndTime()));
+		return rs;
+	}
+}
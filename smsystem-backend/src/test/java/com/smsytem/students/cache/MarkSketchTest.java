@@ -0,0 +1,84 @@
+package com.smsytem.students.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class MarkSketchTest {
+
+	@Test
+	void emptySketchHasNoQuantiles() {
+		assertTrue(Double.isNaN(MarkSketch.EMPTY.quantile(0.5)));
+		assertEquals(0, MarkSketch.EMPTY.getCount());
+	}
+
+	@Test
+	void quantilesUseNearestRank() {
+		// Ten results at 10%, 20%, ... 100%
+		MarkSketch sketch = MarkSketch.fromBins(
+				new int[] {100, 200, 300, 400, 500, 600, 700, 800, 900, 1000},
+				new long[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1});
+
+		assertEquals(10, sketch.getCount());
+		assertEquals(10.0, sketch.quantile(0), 1e-9);
+		assertEquals(50.0, sketch.quantile(0.5), 1e-9);
+		assertEquals(60.0, sketch.quantile(0.51), 1e-9);
+		assertEquals(90.0, sketch.quantile(0.9), 1e-9);
+		assertEquals(100.0, sketch.quantile(1), 1e-9);
+	}
+
+	@Test
+	void repeatedBinsAreCounted() {
+		MarkSketch sketch = MarkSketch.fromBins(new int[] {450, 450, 725}, new long[] {2, 1, 1});
+
+		assertEquals(4, sketch.getCount());
+		assertEquals(45.0, sketch.quantile(0.75), 1e-9);
+		assertEquals(72.5, sketch.quantile(1), 1e-9);
+	}
+
+	@Test
+	void binsMatchTheSqlExpressionAndAreClamped() {
+		assertEquals(900, MarkSketch.binOf(45, 50));
+		assertEquals(333, MarkSketch.binOf(1, 3));
+		assertEquals(1000, MarkSketch.binOf(60, 50));
+		assertEquals(0, MarkSketch.binOf(-5, 50));
+		assertEquals(1000, MarkSketch.fromBins(new int[] {1500}, new long[] {1}).quantile(1) * 10, 1e-9);
+	}
+
+	@Test
+	void mergeAddsCounts() {
+		MarkSketch first = MarkSketch.fromBins(new int[] {100, 900}, new long[] {1, 1});
+		MarkSketch second = MarkSketch.fromBins(new int[] {500}, new long[] {3});
+
+		MarkSketch merged = MarkSketch.merge(Arrays.asList(first, second, MarkSketch.EMPTY));
+
+		assertEquals(5, merged.getCount());
+		assertEquals(50.0, merged.quantile(0.5), 1e-9);
+		assertEquals(90.0, merged.quantile(1), 1e-9);
+	}
+
+	@Test
+	void plusMovesResultsBetweenBins() {
+		MarkSketch sketch = MarkSketch.fromBins(new int[] {300, 800}, new long[] {1, 1});
+
+		MarkSketch edited = sketch.plus(300, -1).plus(950, 1);
+
+		assertEquals(2, edited.getCount());
+		assertEquals(80.0, edited.quantile(0), 1e-9);
+		assertEquals(95.0, edited.quantile(1), 1e-9);
+		assertEquals(30.0, sketch.quantile(0), 1e-9);
+	}
+
+	@Test
+	void plusRefusesToTakeFromAnEmptyBin() {
+		MarkSketch sketch = MarkSketch.fromBins(new int[] {300}, new long[] {1});
+
+		assertNull(sketch.plus(400, -1));
+		assertNull(sketch.plus(300, -2));
+		assertEquals(0, sketch.plus(300, -1).getCount());
+	}
+}
@@ -0,0 +1,56 @@
+package com.smsytem.students.grading;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.smsytem.students.entity.ExamResult.Grade;
+
+class GradeScaleTest {
+
+	@Test
+	void defaultScaleFollowsGradeMinimums() {
+		assertEquals(Grade.A_PLUS, GradeScale.DEFAULT.gradeFor(100));
+		assertEquals(Grade.A_PLUS, GradeScale.DEFAULT.gradeFor(90));
+		assertEquals(Grade.A, GradeScale.DEFAULT.gradeFor(89.99));
+		assertEquals(Grade.D, GradeScale.DEFAULT.gradeFor(33));
+		assertEquals(Grade.F, GradeScale.DEFAULT.gradeFor(32.9));
+		assertEquals(Grade.F, GradeScale.DEFAULT.gradeFor(0));
+	}
+
+	@Test
+	void percentageBelowTheLowestBandIsF() {
+		Map<Grade, Double> bands = new EnumMap<>(Grade.class);
+		bands.put(Grade.A, 75.0);
+		bands.put(Grade.C, 50.0);
+		GradeScale scale = GradeScale.of(bands);
+
+		assertEquals(Grade.A, scale.gradeFor(80));
+		assertEquals(Grade.C, scale.gradeFor(74.9));
+		assertEquals(Grade.C, scale.gradeFor(50));
+		assertEquals(Grade.F, scale.gradeFor(49.9));
+	}
+
+	@Test
+	void toMapListsBandsFromTheTop() {
+		Map<Grade, Double> bands = new EnumMap<>(Grade.class);
+		bands.put(Grade.C, 40.0);
+		bands.put(Grade.A, 80.0);
+
+		assertEquals("{A=80.0, C=40.0}", GradeScale.of(bands).toMap().toString());
+	}
+
+	@Test
+	void invalidScalesAreRejected() {
+		Map<Grade, Double> shared = new EnumMap<>(Grade.class);
+		shared.put(Grade.A, 60.0);
+		shared.put(Grade.B, 60.0);
+
+		assertThrows(IllegalArgumentException.class, () -> GradeScale.of(new EnumMap<>(Grade.class)));
+		assertThrows(IllegalArgumentException.class, () -> GradeScale.of(shared));
+	}
+}